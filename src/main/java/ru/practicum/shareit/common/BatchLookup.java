@@ -0,0 +1,65 @@
+package ru.practicum.shareit.common;
+
+import ru.practicum.shareit.common.dto.LookupResultDto;
+import ru.practicum.shareit.exception.ValidationException;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Общая часть пакетных запросов по списку идентификаторов: проверка списка, одна выборка
+ * из хранилища и раскладка на найденные (в порядке запроса, без повторов) и отсутствующие.
+ */
+public class BatchLookup {
+    public static final int MAX_IDS = 100;
+
+    /**
+     * @param entityName название сущностей в родительном падеже множественного числа для текста ошибки
+     */
+    public static <E, D> LookupResultDto<D> lookup(List<Long> ids,
+                                                   String entityName,
+                                                   Function<Collection<Long>, List<E>> loader,
+                                                   Function<E, Long> idExtractor,
+                                                   Function<E, D> mapper) {
+        Set<Long> uniqueIds = validate(ids, entityName);
+        Map<Long, E> entitiesById = loader.apply(uniqueIds).stream()
+                .collect(Collectors.toMap(idExtractor, Function.identity()));
+
+        List<D> found = new ArrayList<>();
+        List<Long> missingIds = new ArrayList<>();
+        for (Long id : uniqueIds) {
+            E entity = entitiesById.get(id);
+            if (entity == null) {
+                missingIds.add(id);
+            } else {
+                found.add(mapper.apply(entity));
+            }
+        }
+
+        return LookupResultDto.<D>builder()
+                .found(found)
+                .missingIds(missingIds)
+                .build();
+    }
+
+    private static Set<Long> validate(List<Long> ids, String entityName) {
+        if (ids == null || ids.isEmpty()) {
+            throw new ValidationException("Список идентификаторов не может быть пустым");
+        }
+        if (ids.contains(null)) {
+            throw new ValidationException("Список идентификаторов не может содержать null");
+        }
+
+        Set<Long> uniqueIds = new LinkedHashSet<>(ids);
+        if (uniqueIds.size() > MAX_IDS) {
+            throw new ValidationException("Можно запросить не более " + MAX_IDS + " " + entityName + " за раз");
+        }
+        return uniqueIds;
+    }
+}
@@ -0,0 +1,70 @@
+package ru.practicum.shareit.common;
+
+import org.springframework.stereotype.Component;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * Карта идентичности в рамках одного HTTP-запроса: каждая сущность загружается из хранилища не более
+ * одного раза за запрос. Карта лежит в атрибутах запроса и уничтожается вместе с ним, поэтому данные
+ * не переживают запрос. Вне HTTP-запроса (прогрев, фоновые потоки) загрузка идёт напрямую.
+ */
+@Component
+public class RequestIdentityMap {
+    private static final String ATTRIBUTE = RequestIdentityMap.class.getName();
+
+    public <T> T get(Class<T> type, Long id, Function<Long, T> loader) {
+        Map<Key, Object> entities = currentEntities();
+        if (entities == null) {
+            return loader.apply(id);
+        }
+
+        Key key = new Key(type, id);
+        Object cached = entities.get(key);
+        if (cached != null) {
+            return type.cast(cached);
+        }
+
+        // Если загрузчик бросит NotFoundException, в карту ничего не попадёт
+        T loaded = loader.apply(id);
+        entities.put(key, loaded);
+        return loaded;
+    }
+
+    public void put(Class<?> type, Long id, Object entity) {
+        Map<Key, Object> entities = currentEntities();
+        if (entities != null && id != null && entity != null) {
+            entities.put(new Key(type, id), entity);
+        }
+    }
+
+    public void evict(Class<?> type, Long id) {
+        Map<Key, Object> entities = currentEntities();
+        if (entities != null) {
+            entities.remove(new Key(type, id));
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private Map<Key, Object> currentEntities() {
+        RequestAttributes attributes = RequestContextHolder.getRequestAttributes();
+        if (attributes == null) {
+            return null;
+        }
+
+        Map<Key, Object> entities = (Map<Key, Object>) attributes.getAttribute(ATTRIBUTE,
+                RequestAttributes.SCOPE_REQUEST);
+        if (entities == null) {
+            entities = new HashMap<>();
+            attributes.setAttribute(ATTRIBUTE, entities, RequestAttributes.SCOPE_REQUEST);
+        }
+        return entities;
+    }
+
+    private record Key(Class<?> type, Long id) {
+    }
+}
@@ -0,0 +1,19 @@
+package ru.practicum.shareit.common.dto;
+
+import lombok.*;
+
+import java.util.List;
+
+/**
+ * Ответ пакетного запроса по списку идентификаторов: найденные сущности в порядке запроса
+ * и идентификаторы, которых нет.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class LookupResultDto<T> {
+    private List<T> found;
+
+    private List<Long> missingIds;
+}
@@ -0,0 +1,144 @@
+package ru.practicum.shareit.config;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.BeanDescription;
+import com.fasterxml.jackson.databind.DeserializationConfig;
+import com.fasterxml.jackson.databind.JsonSerializer;
+import com.fasterxml.jackson.databind.SerializationConfig;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.deser.BeanDeserializerModifier;
+import com.fasterxml.jackson.databind.introspect.BeanPropertyDefinition;
+import com.fasterxml.jackson.databind.module.SimpleModule;
+import com.fasterxml.jackson.databind.ser.BeanPropertyWriter;
+import com.fasterxml.jackson.databind.ser.BeanSerializerModifier;
+import com.fasterxml.jackson.databind.ser.PropertyWriter;
+import com.fasterxml.jackson.databind.ser.std.BeanSerializerBase;
+import com.fasterxml.jackson.databind.ser.std.StdSerializer;
+import com.fasterxml.jackson.dataformat.cbor.CBORGenerator;
+
+import java.io.IOException;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Передаёт поля перечисленных DTO по номерам из {@code @JsonProperty(index = N)}, а не по именам:
+ * в CBOR ключ карты — целое число. Номер — контракт формата: его нельзя менять и переиспользовать,
+ * а имя поля можно переименовать без поломки клиентов. Поля со значением null не пишутся,
+ * неизвестные номера при чтении пропускаются (если маппер не настроен падать на неизвестных полях).
+ * Регистрируется только в CBOR-маппере; JSON по-прежнему работает с именами.
+ */
+public class FieldIdModule extends SimpleModule {
+    private final Set<Class<?>> types;
+
+    public FieldIdModule(Class<?>... types) {
+        super(FieldIdModule.class.getSimpleName());
+        for (Class<?> type : types) {
+            validate(type);
+        }
+        this.types = Set.of(types);
+
+        setSerializerModifier(new BeanSerializerModifier() {
+            @Override
+            public JsonSerializer<?> modifySerializer(SerializationConfig config, BeanDescription beanDesc,
+                                                      JsonSerializer<?> serializer) {
+                if (!FieldIdModule.this.types.contains(beanDesc.getBeanClass())
+                        || !(serializer instanceof BeanSerializerBase beanSerializer)) {
+                    return serializer;
+                }
+                return new FieldIdSerializer(beanDesc.getBeanClass(), beanSerializer);
+            }
+        });
+        setDeserializerModifier(new BeanDeserializerModifier() {
+            @Override
+            public List<BeanPropertyDefinition> updateProperties(DeserializationConfig config,
+                                                                 BeanDescription beanDesc,
+                                                                 List<BeanPropertyDefinition> properties) {
+                if (!FieldIdModule.this.types.contains(beanDesc.getBeanClass())) {
+                    return properties;
+                }
+                // Парсер CBOR отдаёт целочисленный ключ карты как имя "N"
+                return properties.stream()
+                        .map(property -> property.withSimpleName(String.valueOf(property.getMetadata().getIndex())))
+                        .toList();
+            }
+        });
+    }
+
+    /**
+     * Падает при старте, если у поля нет номера или номер повторяется: иначе ошибка всплыла бы только
+     * на первом запросе, а повтор молча склеил бы два поля.
+     */
+    private static void validate(Class<?> type) {
+        Map<Integer, String> fieldsById = new HashMap<>();
+        for (Field field : type.getDeclaredFields()) {
+            if (Modifier.isStatic(field.getModifiers())) {
+                continue;
+            }
+            JsonProperty property = field.getAnnotation(JsonProperty.class);
+            if (property == null || property.index() < 0) {
+                throw new IllegalStateException("Поле " + type.getSimpleName() + "." + field.getName()
+                        + " должно иметь @JsonProperty(index = N)");
+            }
+            String previous = fieldsById.putIfAbsent(property.index(), field.getName());
+            if (previous != null) {
+                throw new IllegalStateException("Номер " + property.index() + " в " + type.getSimpleName()
+                        + " занят полями " + previous + " и " + field.getName());
+            }
+        }
+    }
+
+    private static class FieldIdSerializer extends StdSerializer<Object> {
+        private final BeanPropertyWriter[] properties;
+        private final int[] ids;
+
+        FieldIdSerializer(Class<?> type, BeanSerializerBase serializer) {
+            super(type, false);
+            List<BeanPropertyWriter> writers = new ArrayList<>();
+            for (Iterator<PropertyWriter> it = serializer.properties(); it.hasNext(); ) {
+                writers.add((BeanPropertyWriter) it.next());
+            }
+            writers.sort(Comparator.comparing(writer -> writer.getMetadata().getIndex()));
+            this.properties = writers.toArray(BeanPropertyWriter[]::new);
+            this.ids = writers.stream().mapToInt(writer -> writer.getMetadata().getIndex()).toArray();
+        }
+
+        @Override
+        public void serialize(Object bean, JsonGenerator gen, SerializerProvider provider) throws IOException {
+            Object[] values = new Object[properties.length];
+            int present = 0;
+            for (int i = 0; i < properties.length; i++) {
+                try {
+                    values[i] = properties[i].get(bean);
+                } catch (Exception e) {
+                    wrapAndThrow(provider, e, bean, properties[i].getName());
+                }
+                if (values[i] != null) {
+                    present++;
+                }
+            }
+
+            // Длина карты известна заранее: CBOR пишет её в заголовке, без маркера конца
+            gen.writeStartObject(bean, present);
+            for (int i = 0; i < properties.length; i++) {
+                if (values[i] == null) {
+                    continue;
+                }
+                if (gen instanceof CBORGenerator cbor) {
+                    cbor.writeFieldId(ids[i]);
+                } else {
+                    gen.writeFieldName(String.valueOf(ids[i]));
+                }
+                provider.defaultSerializeValue(values[i], gen);
+            }
+            gen.writeEndObject();
+        }
+    }
+}
@@ -0,0 +1,26 @@
+package ru.practicum.shareit.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.converter.cbor.MappingJackson2CborHttpMessageConverter;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import ru.practicum.shareit.item.dto.ItemDto;
+import ru.practicum.shareit.user.dto.UserDto;
+
+/**
+ * Кроме JSON контроллеры отдают и принимают CBOR ({@code application/cbor}) — выбор по заголовкам
+ * Accept и Content-Type. Маппер собирается из того же builder-а, что и JSON-овый, поэтому
+ * модули и настройки Jackson одинаковые. Поверх них в CBOR поля DTO передаются по номерам — {@link FieldIdModule}.
+ */
+@Configuration
+public class WireFormatConfig {
+    @Bean
+    public MappingJackson2CborHttpMessageConverter cborHttpMessageConverter(Jackson2ObjectMapperBuilder builder) {
+        ObjectMapper mapper = builder.factory(new CBORFactory()).build();
+        // Модуль добавляется после build(): builder.modules(...) заменил бы модули, найденные Boot
+        mapper.registerModule(new FieldIdModule(ItemDto.class, UserDto.class));
+        return new MappingJackson2CborHttpMessageConverter(mapper);
+    }
+}
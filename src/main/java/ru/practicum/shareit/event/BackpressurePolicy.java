@@ -0,0 +1,18 @@
+package ru.practicum.shareit.event;
+
+/**
+ * Что делать издателю, если кольцевой буфер заполнен ещё не разосланными событиями.
+ */
+public enum BackpressurePolicy {
+    /**
+     * Перезаписать самое старое событие; счётчик dropped вырастет, а подписчики получат reset
+     * и перечитают состояние целиком.
+     */
+    DROP_OLDEST,
+
+    /**
+     * Ждать, пока диспетчер разложит события по очередям подписчиков. Запись не теряется; издатели ждут,
+     * только если отстаёт сам диспетчер, а медленный подписчик просто отключается.
+     */
+    BLOCK
+}
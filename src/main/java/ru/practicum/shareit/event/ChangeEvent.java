@@ -0,0 +1,15 @@
+package ru.practicum.shareit.event;
+
+import java.time.Instant;
+
+/**
+ * @param sequence   сквозной номер события, начиная с 1; клиенты передают его в {@code since}
+ * @param payload    снимок DTO после изменения, {@code null} для удаления
+ */
+public record ChangeEvent(long sequence,
+                          EntityType entityType,
+                          ChangeType changeType,
+                          Long entityId,
+                          Object payload,
+                          Instant timestamp) {
+}
@@ -0,0 +1,397 @@
+package ru.practicum.shareit.event;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Внутрипроцессная шина изменений. Издатели захватывают номер через {@link AtomicLong} и кладут событие
+ * в слот кольцевого буфера CAS-ом, без блокировок. Один поток-диспетчер забирает события пачками
+ * и раскладывает их по ограниченным очередям подписчиков; тот же буфер служит историей для подписки
+ * с {@code since}. Подписчикам события отправляются из отдельных виртуальных потоков, поэтому медленный
+ * клиент не задерживает диспетчер: переполнивший свою очередь подписчик отключается и должен
+ * переподключиться с последним полученным номером.
+ */
+@Slf4j
+public class ChangeEventBus {
+    private static final long BLOCK_PARK_NANOS = TimeUnit.MICROSECONDS.toNanos(100);
+
+    private final int capacity;
+    private final int mask;
+    private final int maxBatchSize;
+    private final int subscriberBufferSize;
+    private final long maxDispatchDelayNanos;
+    private final BackpressurePolicy backpressure;
+    private final AtomicReferenceArray<ChangeEvent> ring;
+
+    private final AtomicLong nextSequence = new AtomicLong(1);
+    private final AtomicLong dispatchedSequence = new AtomicLong(0);
+    private final Queue<Subscription> newSubscriptions = new ConcurrentLinkedQueue<>();
+    // Меняется только из потока диспетчера
+    private final List<Subscription> subscriptions = new ArrayList<>();
+    private final AtomicInteger subscriberCount = new AtomicInteger();
+    private final ExecutorService senders = Executors.newVirtualThreadPerTaskExecutor();
+
+    private final Counter published;
+    private final Counter dropped;
+    private final Counter lagging;
+    private final DistributionSummary batchSize;
+
+    private volatile Thread dispatcher;
+    private volatile boolean running;
+    private volatile boolean stopped;
+    private volatile boolean dispatcherWaiting;
+
+    public ChangeEventBus(ChangeEventProperties properties, MeterRegistry meterRegistry) {
+        this.capacity = Integer.highestOneBit(Math.max(2, properties.getBufferSize()) - 1) << 1;
+        this.mask = capacity - 1;
+        this.maxBatchSize = Math.max(1, properties.getMaxBatchSize());
+        this.subscriberBufferSize = Math.max(1, properties.getSubscriberBufferSize());
+        this.maxDispatchDelayNanos = properties.getMaxDispatchDelay().toNanos();
+        this.backpressure = properties.getBackpressure();
+        this.ring = new AtomicReferenceArray<>(capacity);
+
+        this.published = meterRegistry.counter("shareit.events.published");
+        this.dropped = meterRegistry.counter("shareit.events.dropped");
+        this.lagging = meterRegistry.counter("shareit.events.subscribers.lagging");
+        this.batchSize = DistributionSummary.builder("shareit.events.batch.size").register(meterRegistry);
+        Gauge.builder("shareit.events.lag", this, bus -> bus.nextSequence.get() - 1 - bus.dispatchedSequence.get())
+                .register(meterRegistry);
+        Gauge.builder("shareit.events.subscribers", subscriberCount, AtomicInteger::get)
+                .register(meterRegistry);
+    }
+
+    public void start() {
+        running = true;
+        Thread thread = new Thread(this::dispatchLoop, "change-event-dispatcher");
+        thread.setDaemon(true);
+        dispatcher = thread;
+        thread.start();
+    }
+
+    public void stop() {
+        running = false;
+        stopped = true;
+        Thread thread = dispatcher;
+        if (thread != null) {
+            LockSupport.unpark(thread);
+            try {
+                thread.join(TimeUnit.SECONDS.toMillis(5));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        senders.shutdownNow();
+    }
+
+    public long publish(EntityType entityType, ChangeType changeType, Long entityId, Object payload) {
+        long sequence = nextSequence.getAndIncrement();
+        if (backpressure == BackpressurePolicy.BLOCK) {
+            // Слот можно переиспользовать, только когда событие sequence - capacity уже разложено подписчикам
+            while (!stopped && sequence - dispatchedSequence.get() > capacity) {
+                wakeDispatcher();
+                LockSupport.parkNanos(BLOCK_PARK_NANOS);
+            }
+        }
+
+        ChangeEvent event = new ChangeEvent(sequence, entityType, changeType, entityId, payload, Instant.now());
+        int index = index(sequence);
+        while (true) {
+            ChangeEvent current = ring.get(index);
+            if (current != null && current.sequence() > sequence) {
+                // Более новый издатель уже занял слот, диспетчер учтёт это событие как потерянное
+                break;
+            }
+            if (ring.compareAndSet(index, current, event)) {
+                break;
+            }
+        }
+
+        published.increment();
+        if (dispatcherWaiting) {
+            wakeDispatcher();
+        }
+        return sequence;
+    }
+
+    /**
+     * @param since номер последнего полученного события; {@code null} — только новые события
+     */
+    public Subscription subscribe(ChangeEventListener listener, Long since) {
+        Subscription subscription = new Subscription(listener, since, subscriberBufferSize);
+        newSubscriptions.add(subscription);
+        wakeDispatcher();
+        return subscription;
+    }
+
+    public long getLastSequence() {
+        return nextSequence.get() - 1;
+    }
+
+    private void dispatchLoop() {
+        long next = dispatchedSequence.get() + 1;
+        // Пропуск может закончиться только в следующей пачке, поэтому флаг живёт между итерациями
+        boolean gap = false;
+        while (running) {
+            registerNewSubscriptions(next - 1);
+
+            List<ChangeEvent> batch = new ArrayList<>();
+            while (batch.size() < maxBatchSize) {
+                ChangeEvent event = ring.get(index(next));
+                if (event == null || event.sequence() < next) {
+                    break;
+                }
+                if (event.sequence() > next) {
+                    dropped.increment();
+                    gap = true;
+                } else {
+                    if (gap) {
+                        // Подписчики сначала дочитывают события до пропуска, затем получают reset
+                        deliver(batch);
+                        batch = new ArrayList<>();
+                        deliver(new Reset(next));
+                        gap = false;
+                    }
+                    batch.add(event);
+                }
+                next++;
+            }
+
+            if (!batch.isEmpty()) {
+                batchSize.record(batch.size());
+                deliver(batch);
+            }
+            dispatchedSequence.set(next - 1);
+
+            if (batch.isEmpty()) {
+                awaitEvents(next);
+            }
+        }
+    }
+
+    private void registerNewSubscriptions(long dispatchedUpTo) {
+        Subscription subscription;
+        while ((subscription = newSubscriptions.poll()) != null) {
+            if (subscription.since == null) {
+                subscription.lastDelivered = dispatchedUpTo;
+            } else {
+                prepareReplay(subscription, dispatchedUpTo);
+            }
+            subscriptions.add(subscription);
+            subscriberCount.incrementAndGet();
+            schedule(subscription);
+        }
+    }
+
+    /**
+     * Копирует историю в подписку; отправит её поток подписчика перед новыми событиями.
+     */
+    private void prepareReplay(Subscription subscription, long dispatchedUpTo) {
+        long oldest = Math.max(1, dispatchedUpTo - capacity + 1);
+        long from = subscription.since + 1;
+        if (from < oldest || subscription.since >= nextSequence.get()) {
+            // История вытеснена или номер остался от прошлого запуска приложения
+            subscription.resetTo = oldest;
+            from = oldest;
+        }
+        subscription.lastDelivered = from - 1;
+
+        List<ChangeEvent> replay = new ArrayList<>();
+        for (long sequence = from; sequence <= dispatchedUpTo; sequence++) {
+            ChangeEvent event = ring.get(index(sequence));
+            if (event != null && event.sequence() == sequence) {
+                replay.add(event);
+            } else {
+                // Слот занят более новым событием: история до него неполная, подписчик перечитает состояние
+                replay.clear();
+                subscription.resetTo = sequence + 1;
+            }
+        }
+        subscription.replay = replay;
+    }
+
+    private void deliver(Reset reset) {
+        deliver(List.of(reset));
+    }
+
+    /**
+     * @param batch события и отметки {@link Reset} в порядке номеров
+     */
+    private void deliver(List<?> batch) {
+        if (batch.isEmpty()) {
+            return;
+        }
+        Iterator<Subscription> iterator = subscriptions.iterator();
+        while (iterator.hasNext()) {
+            Subscription subscription = iterator.next();
+            if (subscription.cancelled) {
+                iterator.remove();
+                subscriberCount.decrementAndGet();
+                continue;
+            }
+            for (Object event : batch) {
+                if (!subscription.pending.offer(event)) {
+                    lagging.increment();
+                    subscription.lagging = true;
+                    subscription.cancel();
+                    iterator.remove();
+                    subscriberCount.decrementAndGet();
+                    break;
+                }
+            }
+            schedule(subscription);
+        }
+    }
+
+    private void schedule(Subscription subscription) {
+        if (subscription.sending.compareAndSet(false, true)) {
+            try {
+                senders.execute(() -> send(subscription));
+            } catch (RuntimeException e) {
+                // Шина останавливается, отправлять уже некому
+                subscription.sending.set(false);
+            }
+        }
+    }
+
+    /**
+     * Выполняется не больше чем в одном потоке на подписку, поэтому порядок событий сохраняется.
+     */
+    private void send(Subscription subscription) {
+        try {
+            while (true) {
+                if (subscription.cancelled) {
+                    if (subscription.lagging) {
+                        subscription.listener.onLagging();
+                    }
+                    return;
+                }
+                if (subscription.resetTo > 0) {
+                    long resetTo = subscription.resetTo;
+                    subscription.resetTo = 0;
+                    subscription.listener.onReset(resetTo);
+                }
+                List<ChangeEvent> replay = subscription.replay;
+                if (replay != null) {
+                    subscription.replay = null;
+                    for (int from = 0; from < replay.size(); from += maxBatchSize) {
+                        notify(subscription, replay.subList(from, Math.min(replay.size(), from + maxBatchSize)));
+                    }
+                }
+
+                List<Object> batch = new ArrayList<>();
+                subscription.pending.drainTo(batch, maxBatchSize);
+                if (batch.isEmpty()) {
+                    subscription.sending.set(false);
+                    // Диспетчер мог положить событие между drainTo и сбросом флага
+                    if ((subscription.pending.isEmpty() && !subscription.cancelled)
+                            || !subscription.sending.compareAndSet(false, true)) {
+                        return;
+                    }
+                    continue;
+                }
+                send(subscription, batch);
+            }
+        } catch (Exception e) {
+            log.debug("Подписчик на изменения отключён", e);
+            subscription.cancel();
+            subscription.sending.set(false);
+        }
+    }
+
+    private void send(Subscription subscription, List<Object> batch) throws Exception {
+        List<ChangeEvent> events = new ArrayList<>(batch.size());
+        for (Object item : batch) {
+            if (item instanceof Reset reset) {
+                notify(subscription, events);
+                events.clear();
+                subscription.listener.onReset(reset.sequence());
+            } else {
+                events.add((ChangeEvent) item);
+            }
+        }
+        notify(subscription, events);
+    }
+
+    private void notify(Subscription subscription, List<ChangeEvent> events) throws Exception {
+        List<ChangeEvent> fresh = new ArrayList<>(events.size());
+        for (ChangeEvent event : events) {
+            // Событие могло попасть и в историю, и в очередь, если подписка зарегистрирована до его рассылки
+            if (event.sequence() > subscription.lastDelivered) {
+                fresh.add(event);
+            }
+        }
+        if (!fresh.isEmpty()) {
+            subscription.listener.onEvents(fresh);
+            subscription.lastDelivered = fresh.get(fresh.size() - 1).sequence();
+        }
+    }
+
+    private void awaitEvents(long next) {
+        dispatcherWaiting = true;
+        ChangeEvent event = ring.get(index(next));
+        if (running && newSubscriptions.isEmpty() && (event == null || event.sequence() < next)) {
+            LockSupport.parkNanos(this, maxDispatchDelayNanos);
+        }
+        dispatcherWaiting = false;
+    }
+
+    private void wakeDispatcher() {
+        Thread thread = dispatcher;
+        if (thread != null) {
+            LockSupport.unpark(thread);
+        }
+    }
+
+    private int index(long sequence) {
+        return (int) (sequence & mask);
+    }
+
+    /**
+     * Отметка в очереди подписчика: события до {@code sequence} потеряны, нужно перечитать состояние.
+     */
+    private record Reset(long sequence) {
+    }
+
+    public static final class Subscription {
+        private final ChangeEventListener listener;
+        private final Long since;
+        private final BlockingQueue<Object> pending;
+        private final AtomicBoolean sending = new AtomicBoolean();
+        // Пишутся диспетчером до первой отправки, дальше читаются только потоком подписчика
+        private volatile List<ChangeEvent> replay;
+        private volatile long resetTo;
+        private volatile long lastDelivered;
+        private volatile boolean lagging;
+        private volatile boolean cancelled;
+
+        private Subscription(ChangeEventListener listener, Long since, int bufferSize) {
+            this.listener = listener;
+            this.since = since;
+            this.pending = new ArrayBlockingQueue<>(bufferSize);
+        }
+
+        public void cancel() {
+            cancelled = true;
+        }
+    }
+}
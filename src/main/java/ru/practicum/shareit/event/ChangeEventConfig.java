@@ -0,0 +1,15 @@
+package ru.practicum.shareit.event;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+@EnableConfigurationProperties(ChangeEventProperties.class)
+public class ChangeEventConfig {
+    @Bean(initMethod = "start", destroyMethod = "stop")
+    public ChangeEventBus changeEventBus(ChangeEventProperties properties, MeterRegistry meterRegistry) {
+        return new ChangeEventBus(properties, meterRegistry);
+    }
+}
@@ -0,0 +1,24 @@
+package ru.practicum.shareit.event;
+
+import java.util.List;
+
+/**
+ * Вызывается из потока подписки (не больше одного одновременно), события приходят пачками в порядке номеров.
+ * Исключение из обработчика отменяет подписку.
+ */
+public interface ChangeEventListener {
+    void onEvents(List<ChangeEvent> events) throws Exception;
+
+    /**
+     * События до {@code oldestAvailableSequence} потеряны: вытеснены из истории или перезаписаны до рассылки.
+     * Подписчику нужно перечитать состояние целиком; следующие события начнутся с этого номера.
+     */
+    default void onReset(long oldestAvailableSequence) throws Exception {
+    }
+
+    /**
+     * Подписчик не успевал забирать события и отключён; ему нужно переподключиться с последним полученным номером.
+     */
+    default void onLagging() throws Exception {
+    }
+}
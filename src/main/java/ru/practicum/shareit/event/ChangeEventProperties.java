@@ -0,0 +1,22 @@
+package ru.practicum.shareit.event;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@Data
+@ConfigurationProperties(prefix = "shareit.events")
+public class ChangeEventProperties {
+    private int bufferSize = 8192;
+
+    private int maxBatchSize = 256;
+
+    private int subscriberBufferSize = 1024;
+
+    private Duration maxDispatchDelay = Duration.ofMillis(10);
+
+    private BackpressurePolicy backpressure = BackpressurePolicy.DROP_OLDEST;
+
+    private Duration sseTimeout = Duration.ofMinutes(30);
+}
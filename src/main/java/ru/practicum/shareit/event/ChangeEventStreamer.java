@@ -0,0 +1,53 @@
+package ru.practicum.shareit.event;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.util.List;
+
+/**
+ * Отдаёт изменения одного типа сущностей через SSE. Номер события передаётся как id, поэтому
+ * при переподключении браузер сам пришлёт Last-Event-ID.
+ */
+@Component
+@RequiredArgsConstructor
+public class ChangeEventStreamer {
+    private final ChangeEventBus changeEventBus;
+    private final ChangeEventProperties properties;
+
+    public SseEmitter stream(EntityType entityType, Long since) {
+        SseEmitter emitter = new SseEmitter(properties.getSseTimeout().toMillis());
+        ChangeEventBus.Subscription subscription = changeEventBus.subscribe(new ChangeEventListener() {
+            @Override
+            public void onEvents(List<ChangeEvent> events) throws Exception {
+                for (ChangeEvent event : events) {
+                    if (event.entityType() == entityType) {
+                        emitter.send(SseEmitter.event()
+                                .id(String.valueOf(event.sequence()))
+                                .name(event.changeType().name().toLowerCase())
+                                .data(event));
+                    }
+                }
+            }
+
+            @Override
+            public void onReset(long oldestAvailableSequence) throws Exception {
+                emitter.send(SseEmitter.event()
+                        .name("reset")
+                        .data(oldestAvailableSequence));
+            }
+
+            @Override
+            public void onLagging() {
+                // Клиент переподключится с Last-Event-ID и дочитает пропущенное из истории
+                emitter.complete();
+            }
+        }, since);
+
+        emitter.onCompletion(subscription::cancel);
+        emitter.onTimeout(subscription::cancel);
+        emitter.onError(e -> subscription.cancel());
+        return emitter;
+    }
+}
@@ -0,0 +1,5 @@
+package ru.practicum.shareit.event;
+
+public enum ChangeType {
+    CREATED, UPDATED, DELETED
+}
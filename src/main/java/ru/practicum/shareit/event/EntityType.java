@@ -0,0 +1,5 @@
+package ru.practicum.shareit.event;
+
+public enum EntityType {
+    ITEM, USER
+}
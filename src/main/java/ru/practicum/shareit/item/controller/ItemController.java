@@ -2,7 +2,12 @@ package ru.practicum.shareit.item.controller;
 
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.MediaType;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import ru.practicum.shareit.common.dto.LookupResultDto;
+import ru.practicum.shareit.event.ChangeEventStreamer;
+import ru.practicum.shareit.event.EntityType;
 import ru.practicum.shareit.item.service.ItemService;
 import ru.practicum.shareit.item.dto.ItemDto;
 
@@ -13,6 +18,7 @@ import java.util.List;
 @RequiredArgsConstructor
 public class ItemController {
     private final ItemService itemService;
+    private final ChangeEventStreamer changeEventStreamer;
 
     @PostMapping
     public ItemDto create(@RequestHeader("X-Sharer-User-Id") Long userId,
@@ -27,19 +33,45 @@ public class ItemController {
         return itemService.update(userId, itemId, itemDto);
     }
 
+    /**
+     * PATCH не отличает отсутствующее поле от null, поэтому координаты снимаются отдельным запросом.
+     */
+    @DeleteMapping("/{itemId}/location")
+    public ItemDto clearLocation(@RequestHeader("X-Sharer-User-Id") Long userId,
+                                 @PathVariable Long itemId) {
+        return itemService.clearLocation(userId, itemId);
+    }
+
     @GetMapping("/{itemId}")
     public ItemDto getById(@RequestHeader("X-Sharer-User-Id") Long userId,
                            @PathVariable Long itemId) {
         return itemService.getById(userId, itemId);
     }
 
+    @GetMapping(params = "ids")
+    public LookupResultDto<ItemDto> getByIds(@RequestHeader("X-Sharer-User-Id") Long userId,
+                                             @RequestParam List<Long> ids) {
+        return itemService.getByIds(userId, ids);
+    }
+
     @GetMapping
     public List<ItemDto> getAllByOwner(@RequestHeader("X-Sharer-User-Id") Long userId) {
         return itemService.getAllByOwner(userId);
     }
 
     @GetMapping("/search")
-    public List<ItemDto> search(@RequestParam String text) {
+    public List<ItemDto> search(@RequestParam(required = false) String text,
+                                @RequestParam(required = false) String near,
+                                @RequestParam(required = false, defaultValue = "5") Double radius) {
+        if (near != null) {
+            return itemService.searchNear(text, near, radius);
+        }
         return itemService.search(text);
     }
+
+    @GetMapping(value = "/changes", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter changes(@RequestParam(required = false) Long since,
+                              @RequestHeader(value = "Last-Event-ID", required = false) Long lastEventId) {
+        return changeEventStreamer.stream(EntityType.ITEM, since != null ? since : lastEventId);
+    }
 }
\ No newline at end of file
@@ -1,7 +1,11 @@
 package ru.practicum.shareit.item.dto;
 
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.annotation.JsonPropertyOrder;
 import lombok.*;
 
+import jakarta.validation.constraints.DecimalMax;
+import jakarta.validation.constraints.DecimalMin;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotNull;
 
@@ -9,17 +13,34 @@ import jakarta.validation.constraints.NotNull;
 @Builder
 @NoArgsConstructor
 @AllArgsConstructor
+@JsonPropertyOrder({"id", "name", "description", "available", "requestId", "latitude", "longitude"})
 public class ItemDto {
+    // Номера полей — контракт CBOR (см. FieldIdModule): не менять и не переиспользовать, новым полям — следующий свободный номер
+    @JsonProperty(index = 1)
     private Long id;
 
+    @JsonProperty(index = 2)
     @NotBlank(message = "Название не может быть пустым")
     private String name;
 
+    @JsonProperty(index = 3)
     @NotBlank(message = "Описание не может быть пустым")
     private String description;
 
+    @JsonProperty(index = 4)
     @NotNull(message = "Статус доступности не может быть null")
     private Boolean available;
 
+    @JsonProperty(index = 5)
     private Long requestId;
+
+    @JsonProperty(index = 6)
+    @DecimalMin(value = "-90.0", message = "Широта должна быть в диапазоне от -90 до 90")
+    @DecimalMax(value = "90.0", message = "Широта должна быть в диапазоне от -90 до 90")
+    private Double latitude;
+
+    @JsonProperty(index = 7)
+    @DecimalMin(value = "-180.0", message = "Долгота должна быть в диапазоне от -180 до 180")
+    @DecimalMax(value = "180.0", message = "Долгота должна быть в диапазоне от -180 до 180")
+    private Double longitude;
 }
\ No newline at end of file
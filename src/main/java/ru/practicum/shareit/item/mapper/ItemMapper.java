@@ -19,6 +19,8 @@ public class ItemMapper {
                 .description(item.getDescription())
                 .available(item.getAvailable())
                 .requestId(item.getRequestId())
+                .latitude(item.getLatitude())
+                .longitude(item.getLongitude())
                 .build();
     }
 
@@ -33,6 +35,8 @@ public class ItemMapper {
                 .description(itemDto.getDescription())
                 .available(itemDto.getAvailable())
                 .requestId(itemDto.getRequestId())
+                .latitude(itemDto.getLatitude())
+                .longitude(itemDto.getLongitude())
                 .build();
     }
 
@@ -7,7 +7,7 @@ import jakarta.persistence.*;
 import ru.practicum.shareit.user.model.User;
 
 @Data
-@Builder
+@Builder(toBuilder = true)
 @NoArgsConstructor
 @AllArgsConstructor
 @Entity
@@ -32,4 +32,10 @@ public class Item {
 
     @Column(name = "request_id")
     private Long requestId;
+
+    @Column(name = "latitude")
+    private Double latitude;
+
+    @Column(name = "longitude")
+    private Double longitude;
 }
\ No newline at end of file
@@ -1,5 +1,6 @@
 package ru.practicum.shareit.item.service;
 
+import ru.practicum.shareit.common.dto.LookupResultDto;
 import ru.practicum.shareit.item.dto.ItemDto;
 import ru.practicum.shareit.item.model.Item;
 import java.util.List;
@@ -9,11 +10,17 @@ public interface ItemService {
 
     ItemDto update(Long userId, Long itemId, ItemDto itemDto);
 
+    ItemDto clearLocation(Long userId, Long itemId);
+
     ItemDto getById(Long userId, Long itemId);
 
+    LookupResultDto<ItemDto> getByIds(Long userId, List<Long> itemIds);
+
     List<ItemDto> getAllByOwner(Long userId);
 
     List<ItemDto> search(String text);
 
+    List<ItemDto> searchNear(String text, String near, Double radiusKm);
+
     Item getItemById(Long itemId);
 }
\ No newline at end of file
@@ -2,12 +2,19 @@ package ru.practicum.shareit.item.service;
 
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
+import ru.practicum.shareit.common.BatchLookup;
+import ru.practicum.shareit.common.RequestIdentityMap;
+import ru.practicum.shareit.common.dto.LookupResultDto;
+import ru.practicum.shareit.event.ChangeEventBus;
+import ru.practicum.shareit.event.ChangeType;
+import ru.practicum.shareit.event.EntityType;
 import ru.practicum.shareit.exception.NotFoundException;
 import ru.practicum.shareit.exception.ValidationException;
 import ru.practicum.shareit.item.storage.ItemRepository;
 import ru.practicum.shareit.item.dto.ItemDto;
 import ru.practicum.shareit.item.mapper.ItemMapper;
 import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.user.model.User;
 import ru.practicum.shareit.user.service.UserService;
 
 import java.util.List;
@@ -18,6 +25,8 @@ import java.util.stream.Collectors;
 public class ItemServiceImpl implements ItemService {
     private final ItemRepository itemRepository;
     private final UserService userService;
+    private final ChangeEventBus changeEventBus;
+    private final RequestIdentityMap requestIdentityMap;
 
     @Override
     public ItemDto create(Long userId, ItemDto itemDto) {
@@ -30,7 +39,7 @@ public class ItemServiceImpl implements ItemService {
         }
 
         // Проверяем, что пользователь существует
-        userService.getById(userId);
+        User owner = userService.getUserById(userId);
 
         if (itemDto.getName() == null || itemDto.getName().isBlank()) {
             throw new ValidationException("Название не может быть пустым");
@@ -41,11 +50,15 @@ public class ItemServiceImpl implements ItemService {
         if (itemDto.getAvailable() == null) {
             throw new ValidationException("Статус доступности не может быть null");
         }
+        validateCoordinates(itemDto);
 
         Item item = ItemMapper.toItem(itemDto);
-        item.setOwner(userService.getUserById(userId));
+        item.setOwner(owner);
         Item savedItem = itemRepository.save(item);
-        return ItemMapper.toItemDto(savedItem);
+        requestIdentityMap.put(Item.class, savedItem.getId(), savedItem);
+        ItemDto savedDto = ItemMapper.toItemDto(savedItem);
+        changeEventBus.publish(EntityType.ITEM, ChangeType.CREATED, savedDto.getId(), savedDto);
+        return savedDto;
     }
 
     @Override
@@ -62,25 +75,51 @@ public class ItemServiceImpl implements ItemService {
             throw new ValidationException("ItemDto cannot be null");
         }
 
-        Item existingItem = itemRepository.findById(itemId)
-                .orElseThrow(() -> new NotFoundException("Вещь не найдена"));
-
-        if (!existingItem.getOwner().getId().equals(userId)) {
-            throw new NotFoundException("Редактировать может только владелец");
-        }
+        // Изменения вносятся в копию: если сохранение отклонят, вещь в памяти останется прежней
+        Item changedItem = getOwnedItem(userId, itemId).toBuilder().build();
 
         if (itemDto.getName() != null) {
-            existingItem.setName(itemDto.getName());
+            changedItem.setName(itemDto.getName());
         }
         if (itemDto.getDescription() != null) {
-            existingItem.setDescription(itemDto.getDescription());
+            changedItem.setDescription(itemDto.getDescription());
         }
         if (itemDto.getAvailable() != null) {
-            existingItem.setAvailable(itemDto.getAvailable());
+            changedItem.setAvailable(itemDto.getAvailable());
+        }
+        if (itemDto.getLatitude() != null || itemDto.getLongitude() != null) {
+            validateCoordinates(itemDto);
+            changedItem.setLatitude(itemDto.getLatitude());
+            changedItem.setLongitude(itemDto.getLongitude());
+        }
+
+        Item updatedItem = itemRepository.save(changedItem);
+        requestIdentityMap.put(Item.class, itemId, updatedItem);
+        ItemDto updatedDto = ItemMapper.toItemDto(updatedItem);
+        changeEventBus.publish(EntityType.ITEM, ChangeType.UPDATED, updatedDto.getId(), updatedDto);
+        return updatedDto;
+    }
+
+    @Override
+    public ItemDto clearLocation(Long userId, Long itemId) {
+        if (userId == null) {
+            throw new ValidationException("User ID cannot be null");
+        }
+
+        if (itemId == null) {
+            throw new ValidationException("Item ID cannot be null");
         }
 
-        Item updatedItem = itemRepository.save(existingItem);
-        return ItemMapper.toItemDto(updatedItem);
+        Item changedItem = getOwnedItem(userId, itemId).toBuilder()
+                .latitude(null)
+                .longitude(null)
+                .build();
+
+        Item updatedItem = itemRepository.save(changedItem);
+        requestIdentityMap.put(Item.class, itemId, updatedItem);
+        ItemDto updatedDto = ItemMapper.toItemDto(updatedItem);
+        changeEventBus.publish(EntityType.ITEM, ChangeType.UPDATED, updatedDto.getId(), updatedDto);
+        return updatedDto;
     }
 
     @Override
@@ -93,8 +132,17 @@ public class ItemServiceImpl implements ItemService {
             throw new ValidationException("Item ID cannot be null");
         }
 
-        return ItemMapper.toItemDto(itemRepository.findById(itemId)
-                .orElseThrow(() -> new NotFoundException("Вещь не найдена")));
+        return ItemMapper.toItemDto(getItemById(itemId));
+    }
+
+    @Override
+    public LookupResultDto<ItemDto> getByIds(Long userId, List<Long> itemIds) {
+        if (userId == null) {
+            throw new ValidationException("User ID cannot be null");
+        }
+
+        return BatchLookup.lookup(itemIds, "вещей", itemRepository::findAllById,
+                Item::getId, ItemMapper::toItemDto);
     }
 
     @Override
@@ -119,13 +167,71 @@ public class ItemServiceImpl implements ItemService {
         return ItemMapper.toItemDtoList(availableItems);
     }
 
+    @Override
+    public List<ItemDto> searchNear(String text, String near, Double radiusKm) {
+        if (near == null || near.isBlank()) {
+            return search(text);
+        }
+
+        String[] parts = near.split(",");
+        if (parts.length != 2) {
+            throw new ValidationException("Параметр near должен иметь формат lat,lon");
+        }
+        double latitude;
+        double longitude;
+        try {
+            latitude = Double.parseDouble(parts[0].trim());
+            longitude = Double.parseDouble(parts[1].trim());
+        } catch (NumberFormatException e) {
+            throw new ValidationException("Параметр near должен иметь формат lat,lon");
+        }
+        validateCoordinates(latitude, longitude);
+
+        if (radiusKm == null || radiusKm <= 0 || radiusKm.isNaN()) {
+            throw new ValidationException("Радиус поиска должен быть положительным");
+        }
+
+        List<Item> availableItems = itemRepository.searchNear(text, latitude, longitude, radiusKm).stream()
+                .filter(Item::getAvailable)
+                .collect(Collectors.toList());
+
+        return ItemMapper.toItemDtoList(availableItems);
+    }
+
     @Override
     public Item getItemById(Long itemId) {
         if (itemId == null) {
             throw new ValidationException("Item ID cannot be null");
         }
 
-        return itemRepository.findById(itemId)
-                .orElseThrow(() -> new NotFoundException("Вещь не найдена"));
+        return requestIdentityMap.get(Item.class, itemId, id -> itemRepository.findById(id)
+                .orElseThrow(() -> new NotFoundException("Вещь не найдена")));
+    }
+
+    private Item getOwnedItem(Long userId, Long itemId) {
+        Item item = getItemById(itemId);
+        if (!item.getOwner().getId().equals(userId)) {
+            throw new NotFoundException("Редактировать может только владелец");
+        }
+        return item;
+    }
+
+    private void validateCoordinates(ItemDto itemDto) {
+        if (itemDto.getLatitude() == null && itemDto.getLongitude() == null) {
+            return;
+        }
+        if (itemDto.getLatitude() == null || itemDto.getLongitude() == null) {
+            throw new ValidationException("Координаты задаются парой latitude и longitude");
+        }
+        validateCoordinates(itemDto.getLatitude(), itemDto.getLongitude());
+    }
+
+    private void validateCoordinates(double latitude, double longitude) {
+        if (!(latitude >= -90 && latitude <= 90)) {
+            throw new ValidationException("Широта должна быть в диапазоне от -90 до 90");
+        }
+        if (!(longitude >= -180 && longitude <= 180)) {
+            throw new ValidationException("Долгота должна быть в диапазоне от -180 до 180");
+        }
     }
 }
\ No newline at end of file
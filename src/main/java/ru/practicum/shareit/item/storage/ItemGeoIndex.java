@@ -0,0 +1,142 @@
+package ru.practicum.shareit.item.storage;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Пространственный индекс вещей на равномерной сетке по широте и долготе. Поиск в радиусе
+ * просматривает только ячейки, пересекающие ограничивающий прямоугольник, и уточняет кандидатов
+ * по расстоянию на сфере.
+ */
+public class ItemGeoIndex {
+    private static final double EARTH_RADIUS_KM = 6371.0;
+    private static final double KM_PER_DEGREE = Math.PI * EARTH_RADIUS_KM / 180.0;
+    private static final int MAX_CELLS_PER_QUERY = 4096;
+
+    private final double cellDegrees;
+    private final int latCells;
+    private final int lonCells;
+    private final Map<Long, Point> positions = new ConcurrentHashMap<>();
+    private final Map<Long, Set<Long>> cells = new ConcurrentHashMap<>();
+
+    public ItemGeoIndex(double cellDegrees) {
+        this.cellDegrees = cellDegrees;
+        this.latCells = (int) Math.ceil(180.0 / cellDegrees);
+        this.lonCells = (int) Math.ceil(360.0 / cellDegrees);
+    }
+
+    public void put(Long itemId, Double latitude, Double longitude) {
+        if (latitude == null || longitude == null) {
+            remove(itemId);
+            return;
+        }
+
+        Point point = new Point(latitude, longitude, cellKey(latCell(latitude), lonCell(longitude)));
+        positions.compute(itemId, (id, previous) -> {
+            if (previous != null && previous.cell() != point.cell()) {
+                removeFromCell(previous.cell(), id);
+            }
+            cells.compute(point.cell(), (cell, ids) -> {
+                Set<Long> result = ids != null ? ids : ConcurrentHashMap.newKeySet();
+                result.add(id);
+                return result;
+            });
+            return point;
+        });
+    }
+
+    public void remove(Long itemId) {
+        positions.computeIfPresent(itemId, (id, previous) -> {
+            removeFromCell(previous.cell(), id);
+            return null;
+        });
+    }
+
+    /**
+     * @return идентификаторы вещей в радиусе, от ближних к дальним
+     */
+    public List<Long> findWithin(double latitude, double longitude, double radiusKm) {
+        double latDelta = radiusKm / KM_PER_DEGREE;
+        double cosLat = Math.cos(Math.toRadians(Math.min(90.0, Math.abs(latitude) + latDelta)));
+        double lonDelta = cosLat <= 0 ? 180.0 : Math.min(180.0, latDelta / cosLat);
+
+        int fromLat = latCell(Math.max(-90.0, latitude - latDelta));
+        int toLat = latCell(Math.min(90.0, latitude + latDelta));
+        int fromLon = lonDelta >= 180.0 ? 0 : (int) Math.floor((longitude - lonDelta + 180.0) / cellDegrees);
+        int toLon = lonDelta >= 180.0 ? lonCells - 1 : (int) Math.floor((longitude + lonDelta + 180.0) / cellDegrees);
+
+        List<Candidate> candidates = new ArrayList<>();
+        long cellCount = (long) (toLat - fromLat + 1) * (toLon - fromLon + 1);
+        if (cellCount > MAX_CELLS_PER_QUERY) {
+            // Для очень большого радиуса дешевле проверить все точки, чем перебирать пустые ячейки
+            positions.forEach((id, point) -> addIfWithin(candidates, id, point, latitude, longitude, radiusKm));
+        } else {
+            for (int lat = fromLat; lat <= toLat; lat++) {
+                for (int lon = fromLon; lon <= toLon; lon++) {
+                    Set<Long> ids = cells.get(cellKey(lat, Math.floorMod(lon, lonCells)));
+                    if (ids == null) {
+                        continue;
+                    }
+                    for (Long id : ids) {
+                        Point point = positions.get(id);
+                        if (point != null) {
+                            addIfWithin(candidates, id, point, latitude, longitude, radiusKm);
+                        }
+                    }
+                }
+            }
+        }
+
+        return candidates.stream()
+                .sorted(Comparator.comparingDouble(Candidate::distanceKm))
+                .map(Candidate::itemId)
+                .distinct()
+                .toList();
+    }
+
+    public static double distanceKm(double lat1, double lon1, double lat2, double lon2) {
+        double dLat = Math.toRadians(lat2 - lat1);
+        double dLon = Math.toRadians(lon2 - lon1);
+        double a = Math.sin(dLat / 2) * Math.sin(dLat / 2)
+                + Math.cos(Math.toRadians(lat1)) * Math.cos(Math.toRadians(lat2))
+                * Math.sin(dLon / 2) * Math.sin(dLon / 2);
+        return 2 * EARTH_RADIUS_KM * Math.asin(Math.min(1.0, Math.sqrt(a)));
+    }
+
+    private void addIfWithin(List<Candidate> candidates, Long id, Point point,
+                             double latitude, double longitude, double radiusKm) {
+        double distance = distanceKm(latitude, longitude, point.latitude(), point.longitude());
+        if (distance <= radiusKm) {
+            candidates.add(new Candidate(id, distance));
+        }
+    }
+
+    private void removeFromCell(long cell, Long itemId) {
+        cells.computeIfPresent(cell, (key, ids) -> {
+            ids.remove(itemId);
+            return ids.isEmpty() ? null : ids;
+        });
+    }
+
+    private int latCell(double latitude) {
+        return Math.min(latCells - 1, (int) Math.floor((latitude + 90.0) / cellDegrees));
+    }
+
+    private int lonCell(double longitude) {
+        return Math.floorMod((int) Math.floor((longitude + 180.0) / cellDegrees), lonCells);
+    }
+
+    private long cellKey(int latCell, int lonCell) {
+        return ((long) latCell << 32) | (lonCell & 0xFFFFFFFFL);
+    }
+
+    private record Point(double latitude, double longitude, long cell) {
+    }
+
+    private record Candidate(Long itemId, double distanceKm) {
+    }
+}
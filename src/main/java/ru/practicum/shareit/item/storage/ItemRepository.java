@@ -2,6 +2,7 @@ package ru.practicum.shareit.item.storage;
 
 import ru.practicum.shareit.item.model.Item;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -10,7 +11,11 @@ public interface ItemRepository {
 
     Optional<Item> findById(Long id);
 
+    List<Item> findAllById(Collection<Long> ids);
+
     List<Item> findAllByOwnerId(Long ownerId);
 
     List<Item> search(String text);
+
+    List<Item> searchNear(String text, double latitude, double longitude, double radiusKm);
 }
\ No newline at end of file
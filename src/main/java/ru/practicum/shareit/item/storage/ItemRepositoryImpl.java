@@ -9,8 +9,12 @@ import java.util.stream.Collectors;
 
 @Repository
 public class ItemRepositoryImpl implements ItemRepository {
+    // Около 11 км по широте: при типичном радиусе поиска в несколько км запрос задевает 4-9 ячеек
+    private static final double GEO_CELL_DEGREES = 0.1;
+
     private final Map<Long, Item> items = new HashMap<>();
     private final AtomicLong idCounter = new AtomicLong(1);
+    private final ItemGeoIndex geoIndex = new ItemGeoIndex(GEO_CELL_DEGREES);
 
     @Override
     public Item save(Item item) {
@@ -18,14 +22,32 @@ public class ItemRepositoryImpl implements ItemRepository {
             item.setId(idCounter.getAndIncrement());
         }
         items.put(item.getId(), item);
+        geoIndex.put(item.getId(), item.getLatitude(), item.getLongitude());
         return item;
     }
 
+    /**
+     * Загружает уже сохранённую где-то вещь с её идентификатором, не выдавая новых.
+     */
+    public void restore(Item item) {
+        items.put(item.getId(), item);
+        geoIndex.put(item.getId(), item.getLatitude(), item.getLongitude());
+        idCounter.accumulateAndGet(item.getId() + 1, Math::max);
+    }
+
     @Override
     public Optional<Item> findById(Long id) {
         return Optional.ofNullable(items.get(id));
     }
 
+    @Override
+    public List<Item> findAllById(Collection<Long> ids) {
+        return ids.stream()
+                .map(items::get)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toList());
+    }
+
     @Override
     public List<Item> findAllByOwnerId(Long ownerId) {
         return items.values().stream()
@@ -41,8 +63,22 @@ public class ItemRepositoryImpl implements ItemRepository {
 
         String searchText = text.toLowerCase();
         return items.values().stream()
-                .filter(item -> item.getName().toLowerCase().contains(searchText) ||
-                        item.getDescription().toLowerCase().contains(searchText))
+                .filter(item -> matchesText(item, searchText))
                 .collect(Collectors.toList());
     }
+
+    @Override
+    public List<Item> searchNear(String text, double latitude, double longitude, double radiusKm) {
+        String searchText = text == null || text.isBlank() ? null : text.toLowerCase();
+        return geoIndex.findWithin(latitude, longitude, radiusKm).stream()
+                .map(items::get)
+                .filter(Objects::nonNull)
+                .filter(item -> searchText == null || matchesText(item, searchText))
+                .collect(Collectors.toList());
+    }
+
+    private boolean matchesText(Item item, String searchText) {
+        return item.getName().toLowerCase().contains(searchText) ||
+                item.getDescription().toLowerCase().contains(searchText);
+    }
 }
\ No newline at end of file
@@ -0,0 +1,212 @@
+package ru.practicum.shareit.ratelimit;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpMethod;
+import org.springframework.util.AntPathMatcher;
+import org.springframework.util.PathMatcher;
+import org.springframework.web.util.UrlPathHelper;
+import org.springframework.web.servlet.HandlerInterceptor;
+import ru.practicum.shareit.exception.TooManyRequestsException;
+
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Ограничивает поиск и изменяющие запросы: сначала персональное ведро пользователя
+ * из X-Sharer-User-Id, затем общее ведро, затем лимит одновременных дорогих запросов.
+ * Персональное ведро проверяется первым, чтобы один клиент не выбирал общий лимит за всех.
+ * Запросы без заголовка (например, POST /users) и пользователи сверх maxTrackedUsers
+ * ограничиваются только общим ведром: адрес клиента за балансировщиком или NAT у всех один.
+ */
+public class RateLimitInterceptor implements HandlerInterceptor {
+    private static final String USER_HEADER = "X-Sharer-User-Id";
+    private static final String PERMIT_ATTRIBUTE = RateLimitInterceptor.class.getName() + ".PERMIT";
+    private static final int EVICTION_SAMPLE = 32;
+
+    private final RateLimitProperties properties;
+    private final TokenBucket globalBucket;
+    private final ConcurrencyLimiter expensiveLimiter;
+    private final Map<String, TokenBucket> userBuckets = new ConcurrentHashMap<>();
+    // Каждый отслеживаемый пользователь лежит здесь ровно один раз; просмотренные занятые уходят в хвост
+    private final Queue<String> evictionOrder = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger trackedUsers = new AtomicInteger();
+    private final PathMatcher pathMatcher = new AntPathMatcher();
+    private final UrlPathHelper urlPathHelper = new UrlPathHelper();
+
+    private final Counter allowed;
+    private final Counter rejectedByUser;
+    private final Counter rejectedByGlobal;
+    private final Counter rejectedByConcurrency;
+    private final Counter untracked;
+
+    public RateLimitInterceptor(RateLimitProperties properties, MeterRegistry meterRegistry) {
+        this.properties = properties;
+        this.globalBucket = new TokenBucket(properties.getGlobalPermitsPerSecond(), properties.getGlobalBurst());
+        this.expensiveLimiter = new ConcurrencyLimiter(properties.getExpensiveMaxConcurrent());
+
+        this.allowed = meterRegistry.counter("shareit.ratelimit.requests", "outcome", "allowed");
+        this.rejectedByUser = meterRegistry.counter("shareit.ratelimit.requests",
+                "outcome", "rejected", "limiter", "user");
+        this.rejectedByGlobal = meterRegistry.counter("shareit.ratelimit.requests",
+                "outcome", "rejected", "limiter", "global");
+        this.rejectedByConcurrency = meterRegistry.counter("shareit.ratelimit.requests",
+                "outcome", "rejected", "limiter", "concurrency");
+        this.untracked = meterRegistry.counter("shareit.ratelimit.untracked");
+        Gauge.builder("shareit.ratelimit.inflight", expensiveLimiter, ConcurrencyLimiter::getInFlight)
+                .register(meterRegistry);
+        Gauge.builder("shareit.ratelimit.tracked.users", trackedUsers, AtomicInteger::get)
+                .register(meterRegistry);
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        boolean expensive = isExpensive(request);
+        if (!expensive && !isWrite(request)) {
+            return true;
+        }
+
+        long now = System.nanoTime();
+        TokenBucket userBucket = userBucket(request.getHeader(USER_HEADER), now);
+        if (userBucket != null) {
+            long userWait = userBucket.tryConsume(now);
+            if (userWait > 0) {
+                rejectedByUser.increment();
+                throw new TooManyRequestsException("Превышен лимит запросов для пользователя", toSeconds(userWait));
+            }
+        }
+
+        long globalWait = globalBucket.tryConsume(now);
+        if (globalWait > 0) {
+            refund(userBucket);
+            rejectedByGlobal.increment();
+            throw new TooManyRequestsException("Сервис перегружен, повторите запрос позже", toSeconds(globalWait));
+        }
+
+        if (expensive) {
+            if (!expensiveLimiter.tryAcquire()) {
+                refund(userBucket);
+                globalBucket.refund();
+                rejectedByConcurrency.increment();
+                throw new TooManyRequestsException("Слишком много одновременных запросов", 1);
+            }
+            request.setAttribute(PERMIT_ATTRIBUTE, Boolean.TRUE);
+        }
+
+        allowed.increment();
+        return true;
+    }
+
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response,
+                                Object handler, Exception ex) {
+        if (request.getAttribute(PERMIT_ATTRIBUTE) != null) {
+            request.removeAttribute(PERMIT_ATTRIBUTE);
+            expensiveLimiter.release();
+        }
+    }
+
+    /**
+     * @return ведро пользователя или {@code null}, если заголовка нет или таблица вёдер заполнена
+     */
+    private TokenBucket userBucket(String userId, long now) {
+        if (userId == null) {
+            return null;
+        }
+
+        TokenBucket bucket = userBuckets.get(userId);
+        if (bucket != null) {
+            return bucket;
+        }
+        if (!reserveSlot(now)) {
+            untracked.increment();
+            return null;
+        }
+
+        TokenBucket created = new TokenBucket(properties.getUserPermitsPerSecond(), properties.getUserBurst());
+        TokenBucket existing = userBuckets.putIfAbsent(userId, created);
+        if (existing != null) {
+            trackedUsers.decrementAndGet();
+            return existing;
+        }
+        evictionOrder.add(userId);
+        return created;
+    }
+
+    private boolean reserveSlot(long now) {
+        if (tryIncrementTracked()) {
+            return true;
+        }
+        evictIdleSample(now);
+        return tryIncrementTracked();
+    }
+
+    private boolean tryIncrementTracked() {
+        while (true) {
+            int current = trackedUsers.get();
+            if (current >= properties.getMaxTrackedUsers()) {
+                return false;
+            }
+            if (trackedUsers.compareAndSet(current, current + 1)) {
+                return true;
+            }
+        }
+    }
+
+    /**
+     * Просматривает не больше EVICTION_SAMPLE вёдер с головы очереди и выбрасывает полностью восстановившиеся:
+     * такое ведро ничем не отличается от нового. Занятые переносятся в хвост, поэтому следующий просмотр
+     * начнётся с других пользователей. Стоимость не зависит от числа пользователей.
+     */
+    private void evictIdleSample(long now) {
+        for (int i = 0; i < EVICTION_SAMPLE; i++) {
+            String key = evictionOrder.poll();
+            if (key == null) {
+                return;
+            }
+            boolean[] evicted = {false};
+            TokenBucket remaining = userBuckets.computeIfPresent(key, (k, bucket) -> {
+                evicted[0] = bucket.isIdle(now);
+                return evicted[0] ? null : bucket;
+            });
+            if (evicted[0]) {
+                trackedUsers.decrementAndGet();
+                return;
+            }
+            if (remaining != null) {
+                evictionOrder.add(key);
+            }
+        }
+    }
+
+    private void refund(TokenBucket userBucket) {
+        if (userBucket != null) {
+            userBucket.refund();
+        }
+    }
+
+    private boolean isExpensive(HttpServletRequest request) {
+        String path = urlPathHelper.getLookupPathForRequest(request);
+        return properties.getExpensivePaths().stream()
+                .anyMatch(pattern -> pathMatcher.match(pattern, path));
+    }
+
+    private boolean isWrite(HttpServletRequest request) {
+        String method = request.getMethod();
+        return HttpMethod.POST.matches(method)
+                || HttpMethod.PUT.matches(method)
+                || HttpMethod.PATCH.matches(method)
+                || HttpMethod.DELETE.matches(method);
+    }
+
+    private long toSeconds(long nanos) {
+        return Math.max(1, TimeUnit.NANOSECONDS.toSeconds(nanos + TimeUnit.SECONDS.toNanos(1) - 1));
+    }
+}
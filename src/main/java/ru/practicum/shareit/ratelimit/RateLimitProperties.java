@@ -0,0 +1,26 @@
+package ru.practicum.shareit.ratelimit;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.util.List;
+
+@Data
+@ConfigurationProperties(prefix = "shareit.rate-limit")
+public class RateLimitProperties {
+    private boolean enabled = true;
+
+    private long userPermitsPerSecond = 20;
+
+    private long userBurst = 40;
+
+    private long globalPermitsPerSecond = 1000;
+
+    private long globalBurst = 2000;
+
+    private int maxTrackedUsers = 10_000;
+
+    private List<String> expensivePaths = List.of("/items/search");
+
+    private int expensiveMaxConcurrent = 16;
+}
@@ -0,0 +1,37 @@
+package ru.practicum.shareit.startup;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+
+/**
+ * Отмечает завершение первого пользовательского запроса. Пробы и метрики actuator приходят
+ * раньше любого клиента и не должны считаться первым запросом.
+ */
+@RequiredArgsConstructor
+public class FirstRequestFilter extends OncePerRequestFilter {
+    private static final String ACTUATOR_PREFIX = "/actuator/";
+
+    private final StartupMetrics startupMetrics;
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        String path = request.getRequestURI().substring(request.getContextPath().length());
+        return path.startsWith(ACTUATOR_PREFIX) || path.equals("/actuator");
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response,
+                                    FilterChain filterChain) throws ServletException, IOException {
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            startupMetrics.recordRequestCompleted();
+        }
+    }
+}
@@ -0,0 +1,41 @@
+package ru.practicum.shareit.startup;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.http.converter.cbor.MappingJackson2CborHttpMessageConverter;
+import ru.practicum.shareit.item.service.ItemService;
+
+/**
+ * Бины прогрева и замеров помечены {@code @Lazy(false)}: они должны создаться и при
+ * spring.main.lazy-initialization=true, иначе прогрев не выполнится и замеры не начнутся.
+ */
+@Configuration
+@EnableConfigurationProperties(WarmupProperties.class)
+public class StartupConfig {
+    @Bean
+    @Lazy(false)
+    public StartupMetrics startupMetrics(MeterRegistry meterRegistry) {
+        return new StartupMetrics(meterRegistry);
+    }
+
+    @Bean
+    @Lazy(false)
+    public FirstRequestFilter firstRequestFilter(StartupMetrics startupMetrics) {
+        return new FirstRequestFilter(startupMetrics);
+    }
+
+    @Bean
+    @Lazy(false)
+    public StartupWarmup startupWarmup(WarmupProperties properties,
+                                       ItemService itemService,
+                                       ObjectMapper objectMapper,
+                                       MappingJackson2CborHttpMessageConverter cborConverter,
+                                       StartupMetrics startupMetrics) {
+        return new StartupWarmup(properties, itemService, objectMapper, cborConverter.getObjectMapper(),
+                startupMetrics);
+    }
+}
@@ -0,0 +1,56 @@
+package ru.practicum.shareit.startup;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+
+import java.lang.management.ManagementFactory;
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Время от старта JVM до готовности приложения и до первого обслуженного запроса, плюс длительность прогрева.
+ * Пока этап не пройден, метрика равна NaN.
+ */
+@Slf4j
+public class StartupMetrics {
+    private final long jvmStartMillis = ManagementFactory.getRuntimeMXBean().getStartTime();
+    private final AtomicBoolean firstRequestSeen = new AtomicBoolean();
+
+    private volatile double warmupSeconds = Double.NaN;
+    private volatile double readySeconds = Double.NaN;
+    private volatile double firstRequestSeconds = Double.NaN;
+
+    public StartupMetrics(MeterRegistry meterRegistry) {
+        Gauge.builder("shareit.startup.warmup.seconds", this, metrics -> metrics.warmupSeconds)
+                .register(meterRegistry);
+        Gauge.builder("shareit.startup.ready.seconds", this, metrics -> metrics.readySeconds)
+                .register(meterRegistry);
+        Gauge.builder("shareit.startup.first.request.seconds", this, metrics -> metrics.firstRequestSeconds)
+                .register(meterRegistry);
+    }
+
+    public void recordWarmup(Duration duration) {
+        warmupSeconds = duration.toNanos() / 1e9;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onReady() {
+        readySeconds = secondsSinceJvmStart();
+        log.info("Приложение готово к приёму трафика через {} с после старта JVM", readySeconds);
+    }
+
+    public void recordRequestCompleted() {
+        // Обычное чтение дешевле CAS: после первого запроса флаг больше не меняется
+        if (!firstRequestSeen.get() && firstRequestSeen.compareAndSet(false, true)) {
+            firstRequestSeconds = secondsSinceJvmStart();
+            log.info("Первый запрос обслужен через {} с после старта JVM", firstRequestSeconds);
+        }
+    }
+
+    private double secondsSinceJvmStart() {
+        return (System.currentTimeMillis() - jvmStartMillis) / 1000.0;
+    }
+}
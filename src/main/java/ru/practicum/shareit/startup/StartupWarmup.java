@@ -0,0 +1,119 @@
+package ru.practicum.shareit.startup;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import ru.practicum.shareit.item.dto.ItemDto;
+import ru.practicum.shareit.item.mapper.ItemMapper;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.service.ItemService;
+import ru.practicum.shareit.item.storage.ItemRepositoryImpl;
+import ru.practicum.shareit.user.dto.UserDto;
+import ru.practicum.shareit.user.mapper.UserMapper;
+import ru.practicum.shareit.user.model.User;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Прогрев перед приёмом трафика: гоняет поиск, маппинг и сериализацию, чтобы горячие пути успели
+ * скомпилироваться JIT-ом. ApplicationRunner выполняется до того, как readiness-проба actuator
+ * переходит в ACCEPTING_TRAFFIC, поэтому балансировщик не пришлёт запросы раньше.
+ * <p>
+ * Сразу после старта хранилища обычно пусты, и поиск по ним ничего не прогревает. Поэтому основная
+ * нагрузка идёт по отдельному хранилищу с синтетическими вещами вокруг probeLocation: тот же код
+ * поиска и геоиндекса, непустые списки DTO в JSON и CBOR и обратно. Рабочие данные не изменяются.
+ */
+@Slf4j
+@RequiredArgsConstructor
+public class StartupWarmup implements ApplicationRunner {
+    private static final int SYNTHETIC_USERS = 50;
+    private static final int SYNTHETIC_ITEMS = 500;
+    // Примерно ±5 км вокруг точки прогрева: поиск в радиусе задевает несколько ячеек геоиндекса
+    private static final double SYNTHETIC_SPREAD_DEGREES = 0.05;
+
+    private final WarmupProperties properties;
+    private final ItemService itemService;
+    private final ObjectMapper jsonMapper;
+    private final ObjectMapper cborMapper;
+    private final StartupMetrics startupMetrics;
+
+    @Override
+    public void run(ApplicationArguments args) throws Exception {
+        if (!properties.isEnabled() || properties.getIterations() <= 0 || properties.getProbeTexts().isEmpty()) {
+            return;
+        }
+
+        long start = System.nanoTime();
+        String[] location = properties.getProbeLocation().split(",");
+        double latitude = Double.parseDouble(location[0].trim());
+        double longitude = Double.parseDouble(location[1].trim());
+        List<String> probeTexts = properties.getProbeTexts();
+
+        List<User> users = syntheticUsers();
+        ItemRepositoryImpl items = syntheticItems(users, probeTexts, latitude, longitude);
+        List<UserDto> userDtos = UserMapper.toUserDtoList(users);
+
+        long serializedItems = 0;
+        for (int i = 0; i < properties.getIterations(); i++) {
+            String text = probeTexts.get(i % probeTexts.size());
+            List<Item> found = i % 2 == 0
+                    ? items.search(text)
+                    : items.searchNear(text, latitude, longitude, properties.getProbeRadiusKm());
+            List<ItemDto> dtos = ItemMapper.toItemDtoList(found.stream().filter(Item::getAvailable).toList());
+            serializedItems += dtos.size();
+
+            ObjectMapper mapper = i % 4 < 2 ? jsonMapper : cborMapper;
+            byte[] itemBytes = mapper.writeValueAsBytes(dtos);
+            byte[] userBytes = mapper.writeValueAsBytes(userDtos);
+            mapper.readValue(itemBytes, ItemDto[].class);
+            mapper.readValue(userBytes, UserDto[].class);
+
+            // Рабочий путь сервиса тоже проходит разбор параметров и фильтрацию, даже если вещей ещё нет
+            itemService.searchNear(text, properties.getProbeLocation(), properties.getProbeRadiusKm());
+        }
+
+        Duration elapsed = Duration.ofNanos(System.nanoTime() - start);
+        startupMetrics.recordWarmup(elapsed);
+        log.info("Прогрев завершён за {} мс: {} итераций, сериализовано {} синтетических вещей",
+                elapsed.toMillis(), properties.getIterations(), serializedItems);
+    }
+
+    private List<User> syntheticUsers() {
+        List<User> users = new ArrayList<>(SYNTHETIC_USERS);
+        for (long id = 1; id <= SYNTHETIC_USERS; id++) {
+            users.add(User.builder()
+                    .id(id)
+                    .name("Пользователь " + id)
+                    .email("warmup" + id + "@example.com")
+                    .build());
+        }
+        return users;
+    }
+
+    private ItemRepositoryImpl syntheticItems(List<User> owners, List<String> probeTexts,
+                                              double latitude, double longitude) {
+        ItemRepositoryImpl items = new ItemRepositoryImpl();
+        for (long id = 1; id <= SYNTHETIC_ITEMS; id++) {
+            int n = (int) id;
+            String text = probeTexts.get(n % probeTexts.size());
+            items.restore(Item.builder()
+                    .id(id)
+                    .name(text + " " + id)
+                    .description("Синтетическая вещь для прогрева: " + text)
+                    .available(n % 5 != 0)
+                    .owner(owners.get(n % owners.size()))
+                    .latitude(latitude + spread(n, 7))
+                    .longitude(longitude + spread(n, 13))
+                    .build());
+        }
+        return items;
+    }
+
+    private double spread(int n, int step) {
+        return ((n * step) % 101 - 50) / 50.0 * SYNTHETIC_SPREAD_DEGREES;
+    }
+}
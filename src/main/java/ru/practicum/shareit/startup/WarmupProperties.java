@@ -0,0 +1,20 @@
+package ru.practicum.shareit.startup;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.util.List;
+
+@Data
+@ConfigurationProperties(prefix = "shareit.warmup")
+public class WarmupProperties {
+    private boolean enabled = true;
+
+    private int iterations = 2000;
+
+    private List<String> probeTexts = List.of("дрель", "drill", "лестница", "tent", "bike");
+
+    private String probeLocation = "55.75,37.62";
+
+    private double probeRadiusKm = 5;
+}
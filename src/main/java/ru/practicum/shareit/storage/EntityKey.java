@@ -0,0 +1,6 @@
+package ru.practicum.shareit.storage;
+
+import ru.practicum.shareit.event.EntityType;
+
+public record EntityKey(EntityType type, Long id) {
+}
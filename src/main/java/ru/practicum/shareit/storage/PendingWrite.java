@@ -0,0 +1,18 @@
+package ru.practicum.shareit.storage;
+
+/**
+ * Последнее состояние сущности, ожидающее записи в базу.
+ *
+ * @param version  растёт с каждым изменением; запись удаляется из очереди, только если её не обогнала новая
+ * @param snapshot копия сущности на момент изменения, {@code null} — сущность удалена
+ * @param attempts сколько раз запись этой версии уже не удалась
+ */
+public record PendingWrite(EntityKey key, long version, Object snapshot, int attempts) {
+    public boolean isDelete() {
+        return snapshot == null;
+    }
+
+    public PendingWrite withFailedAttempt() {
+        return new PendingWrite(key, version, snapshot, attempts + 1);
+    }
+}
@@ -0,0 +1,60 @@
+package ru.practicum.shareit.storage;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.practicum.shareit.item.storage.ItemRepository;
+import ru.practicum.shareit.item.storage.ItemRepositoryImpl;
+import ru.practicum.shareit.user.model.User;
+import ru.practicum.shareit.user.storage.UserRepository;
+import ru.practicum.shareit.user.storage.UserRepositoryImpl;
+
+/**
+ * Режим write-behind (shareit.storage.write-behind.enabled=true). Хранилища в памяти остаются источником
+ * данных для чтения и при старте заполняются из базы; сервисы получают обёртки, которые ставят изменения
+ * в очередь на запись в базу.
+ */
+@Configuration
+@EnableConfigurationProperties(WriteBehindProperties.class)
+@ConditionalOnProperty(prefix = "shareit.storage.write-behind", name = "enabled", havingValue = "true")
+public class WriteBehindConfig {
+    @Bean
+    public WriteBehindStore writeBehindStore(JdbcTemplate jdbcTemplate, PlatformTransactionManager transactionManager) {
+        return new WriteBehindStore(jdbcTemplate, new TransactionTemplate(transactionManager));
+    }
+
+    @Bean(initMethod = "start", destroyMethod = "close")
+    public WriteBehindQueue writeBehindQueue(WriteBehindProperties properties,
+                                             WriteBehindStore writeBehindStore,
+                                             MeterRegistry meterRegistry) {
+        return new WriteBehindQueue(properties, writeBehindStore, meterRegistry);
+    }
+
+    @Bean
+    @Primary
+    public UserRepository writeBehindUserRepository(UserRepositoryImpl userRepository,
+                                                    WriteBehindStore writeBehindStore,
+                                                    WriteBehindQueue writeBehindQueue) {
+        writeBehindStore.loadUsers().forEach(userRepository::restore);
+        return new WriteBehindUserRepository(userRepository, writeBehindQueue);
+    }
+
+    @Bean
+    @Primary
+    public ItemRepository writeBehindItemRepository(ItemRepositoryImpl itemRepository,
+                                                    UserRepository writeBehindUserRepository,
+                                                    WriteBehindStore writeBehindStore,
+                                                    WriteBehindQueue writeBehindQueue) {
+        // Пользователи к этому моменту уже загружены: бин writeBehindUserRepository создаётся раньше
+        writeBehindStore.loadItems(ownerId -> writeBehindUserRepository.findById(ownerId)
+                        .orElseGet(() -> User.builder().id(ownerId).build()))
+                .forEach(itemRepository::restore);
+        return new WriteBehindItemRepository(itemRepository, writeBehindQueue);
+    }
+}
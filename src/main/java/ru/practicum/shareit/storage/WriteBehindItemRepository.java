@@ -0,0 +1,69 @@
+package ru.practicum.shareit.storage;
+
+import lombok.RequiredArgsConstructor;
+import ru.practicum.shareit.event.EntityType;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.storage.ItemRepository;
+import ru.practicum.shareit.item.storage.ItemRepositoryImpl;
+import ru.practicum.shareit.user.model.User;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Хранилище вещей в режиме write-behind: читает и пишет в память, а изменения ставит в очередь на запись в базу.
+ */
+@RequiredArgsConstructor
+public class WriteBehindItemRepository implements ItemRepository {
+    private final ItemRepositoryImpl delegate;
+    private final WriteBehindQueue queue;
+
+    @Override
+    public Item save(Item item) {
+        queue.ensureCapacity();
+        Item saved = delegate.save(item);
+        markDirty(saved.getId());
+        return saved;
+    }
+
+    @Override
+    public Optional<Item> findById(Long id) {
+        return delegate.findById(id);
+    }
+
+    @Override
+    public List<Item> findAllById(Collection<Long> ids) {
+        return delegate.findAllById(ids);
+    }
+
+    @Override
+    public List<Item> findAllByOwnerId(Long ownerId) {
+        return delegate.findAllByOwnerId(ownerId);
+    }
+
+    @Override
+    public List<Item> search(String text) {
+        return delegate.search(text);
+    }
+
+    @Override
+    public List<Item> searchNear(String text, double latitude, double longitude, double radiusKm) {
+        return delegate.searchNear(text, latitude, longitude, radiusKm);
+    }
+
+    private void markDirty(Long id) {
+        queue.markDirty(EntityType.ITEM, id, () -> delegate.findById(id)
+                .map(item -> Item.builder()
+                        .id(item.getId())
+                        .name(item.getName())
+                        .description(item.getDescription())
+                        .available(item.getAvailable())
+                        .owner(User.builder().id(item.getOwner().getId()).build())
+                        .requestId(item.getRequestId())
+                        .latitude(item.getLatitude())
+                        .longitude(item.getLongitude())
+                        .build())
+                .orElse(null));
+    }
+}
@@ -0,0 +1,20 @@
+package ru.practicum.shareit.storage;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@Data
+@ConfigurationProperties(prefix = "shareit.storage.write-behind")
+public class WriteBehindProperties {
+    private boolean enabled = false;
+
+    private Duration flushInterval = Duration.ofMillis(500);
+
+    private int batchSize = 500;
+
+    private int maxPending = 10_000;
+
+    private int maxAttempts = 5;
+}
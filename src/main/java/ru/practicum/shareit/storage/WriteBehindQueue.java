@@ -0,0 +1,276 @@
+package ru.practicum.shareit.storage;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.dao.RecoverableDataAccessException;
+import org.springframework.dao.TransientDataAccessException;
+import org.springframework.transaction.CannotCreateTransactionException;
+import ru.practicum.shareit.event.EntityType;
+import ru.practicum.shareit.exception.TooManyRequestsException;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+
+/**
+ * Очередь отложенной записи в базу. Изменения одной сущности схлопываются: в очереди хранится только
+ * её последнее состояние с номером версии. Фоновый поток сбрасывает очередь пачками по расписанию
+ * или при достижении размера пачки. Запись удаляется из очереди только после коммита и только если
+ * её не обогнала более новая версия, поэтому для каждой сущности база получает изменения по порядку,
+ * а при сбое или остановке потока ничего не теряется — остаток уйдёт следующим сбросом.
+ * Пока база недоступна, попытки записей не расходуются: в dead letter уходят только изменения,
+ * которые база отвергает сами по себе (например, нарушение ограничения).
+ */
+@Slf4j
+public class WriteBehindQueue {
+    private final WriteBehindProperties properties;
+    private final WriteBehindStore store;
+    private final Map<EntityKey, PendingWrite> pending = new ConcurrentHashMap<>();
+    private final AtomicLong versions = new AtomicLong();
+    private final AtomicBoolean flushRequested = new AtomicBoolean();
+    private final ReentrantLock flushLock = new ReentrantLock();
+
+    private final Counter flushed;
+    private final Counter failedBatches;
+    private final Counter deadLetters;
+    private final Timer flushTimer;
+    private final DistributionSummary batchSize;
+
+    private volatile ScheduledExecutorService flusher;
+
+    public WriteBehindQueue(WriteBehindProperties properties, WriteBehindStore store, MeterRegistry meterRegistry) {
+        this.properties = properties;
+        this.store = store;
+
+        this.flushed = meterRegistry.counter("shareit.writebehind.flushed");
+        this.failedBatches = meterRegistry.counter("shareit.writebehind.failures");
+        this.deadLetters = meterRegistry.counter("shareit.writebehind.dead.letters");
+        this.flushTimer = meterRegistry.timer("shareit.writebehind.flush");
+        this.batchSize = DistributionSummary.builder("shareit.writebehind.batch.size").register(meterRegistry);
+        Gauge.builder("shareit.writebehind.pending", pending, Map::size).register(meterRegistry);
+    }
+
+    /**
+     * Запускает фоновый сброс. Первый сброс выполняется сразу, чтобы дописать то, что осталось после остановки.
+     */
+    public synchronized void start() {
+        if (flusher != null && !flusher.isShutdown()) {
+            return;
+        }
+        flusher = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "write-behind-flusher");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long intervalMillis = properties.getFlushInterval().toMillis();
+        flusher.scheduleWithFixedDelay(this::flushQuietly, 0, intervalMillis, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Останавливает фоновый поток, прерывая текущий сброс. Недописанные изменения остаются в очереди.
+     */
+    public synchronized void stop() {
+        ScheduledExecutorService executor = flusher;
+        flusher = null;
+        if (executor != null) {
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * Дописывает очередь перед остановкой приложения.
+     */
+    public void close() {
+        stop();
+        flushQuietly();
+    }
+
+    /**
+     * Не даёт очереди вырасти сверх лимита: при переполнении пишущий поток сам сбрасывает очередь,
+     * а если база не принимает записи — запрос отклоняется до изменения данных в памяти.
+     * Если сброс уже идёт в другом потоке, запрос отклоняется сразу, а не ждёт его на блокировке.
+     */
+    public void ensureCapacity() {
+        if (pending.size() < properties.getMaxPending()) {
+            return;
+        }
+        if (!flushLock.tryLock()) {
+            throw new TooManyRequestsException("Очередь записи в базу данных переполнена", 1);
+        }
+        try {
+            drain();
+        } catch (RuntimeException e) {
+            log.warn("Сброс очереди write-behind не удался, повтор при следующем сбросе", e);
+        } finally {
+            flushLock.unlock();
+        }
+        if (pending.size() >= properties.getMaxPending()) {
+            throw new TooManyRequestsException("Очередь записи в базу данных переполнена", 1);
+        }
+    }
+
+    /**
+     * Отмечает сущность изменённой. Снимок берётся внутри блокировки ключа, так что версия и состояние
+     * всегда соответствуют друг другу даже при конкурентных изменениях одной сущности.
+     *
+     * @param snapshot текущее состояние сущности в памяти, {@code null} — сущность удалена
+     */
+    public void markDirty(EntityType type, Long id, Supplier<Object> snapshot) {
+        EntityKey key = new EntityKey(type, id);
+        pending.compute(key, (k, previous) -> new PendingWrite(k, versions.incrementAndGet(), snapshot.get(), 0));
+
+        if (pending.size() >= properties.getBatchSize() && flushRequested.compareAndSet(false, true)) {
+            ScheduledExecutorService executor = flusher;
+            try {
+                if (executor != null) {
+                    executor.execute(this::flushQuietly);
+                } else {
+                    flushRequested.set(false);
+                }
+            } catch (RejectedExecutionException e) {
+                flushRequested.set(false);
+            }
+        }
+    }
+
+    public int getPendingCount() {
+        return pending.size();
+    }
+
+    /**
+     * Сбрасывает пачками всё, что было в очереди на момент вызова; каждое изменение пробуется не больше
+     * одного раза за сброс. Во всём сбросе сначала идут пользователи, потом вещи, а удаления — в обратном
+     * порядке, чтобы вещь не попала в базу раньше своего владельца из-за внешнего ключа.
+     * Сбой отдельных записей не останавливает остальные пачки; сброс прерывается, только если база
+     * недоступна ({@link #isStoreUnavailable}).
+     *
+     * @return сколько изменений покинуло очередь (записаны или отправлены в dead letter)
+     */
+    public int flush() {
+        flushLock.lock();
+        try {
+            return drain();
+        } finally {
+            flushLock.unlock();
+        }
+    }
+
+    private int drain() {
+        flushRequested.set(false);
+        List<PendingWrite> drain = new ArrayList<>(pending.values());
+        drain.sort(Comparator.comparingInt(WriteBehindQueue::writeOrder));
+
+        int written = 0;
+        for (int from = 0; from < drain.size() && !Thread.currentThread().isInterrupted(); ) {
+            int to = Math.min(drain.size(), from + properties.getBatchSize());
+            BatchResult result = flushBatch(drain.subList(from, to));
+            written += result.completed();
+            if (result.storeUnavailable()) {
+                break;
+            }
+            from = to;
+        }
+        return written;
+    }
+
+    private void flushQuietly() {
+        try {
+            flush();
+        } catch (RuntimeException e) {
+            log.warn("Сброс очереди write-behind не удался, повтор при следующем сбросе", e);
+        }
+    }
+
+    private static int writeOrder(PendingWrite write) {
+        boolean user = write.key().type() == EntityType.USER;
+        if (!write.isDelete()) {
+            return user ? 0 : 1;
+        }
+        return user ? 3 : 2;
+    }
+
+    /**
+     * Ошибки, после которых нет смысла писать дальше и винить сами записи: нет соединения, транзакцию
+     * не открыть, таймаут или другой временный сбой. Остальное считается ошибкой конкретных данных.
+     */
+    private static boolean isStoreUnavailable(RuntimeException e) {
+        return e instanceof TransientDataAccessException
+                || e instanceof RecoverableDataAccessException
+                || e instanceof DataAccessResourceFailureException
+                || e instanceof CannotCreateTransactionException;
+    }
+
+    private BatchResult flushBatch(List<PendingWrite> batch) {
+        batchSize.record(batch.size());
+        try {
+            flushTimer.record(() -> store.write(batch));
+            batch.forEach(this::complete);
+            flushed.increment(batch.size());
+            return new BatchResult(batch.size(), false);
+        } catch (RuntimeException e) {
+            failedBatches.increment();
+            if (isStoreUnavailable(e)) {
+                log.warn("База недоступна, сброс write-behind отложен: {}", e.getMessage());
+                return new BatchResult(0, true);
+            }
+            log.warn("Пачка write-behind из {} изменений не записана, пишем по одному: {}", batch.size(), e.getMessage());
+        }
+
+        // Пачка откатилась целиком; пишем по одному, чтобы одна «ядовитая» запись не держала остальные
+        int completed = 0;
+        for (PendingWrite write : batch) {
+            if (Thread.currentThread().isInterrupted()) {
+                break;
+            }
+            try {
+                store.write(List.of(write));
+                complete(write);
+                flushed.increment();
+                completed++;
+            } catch (RuntimeException e) {
+                if (isStoreUnavailable(e)) {
+                    log.warn("База недоступна, сброс write-behind отложен: {}", e.getMessage());
+                    return new BatchResult(completed, true);
+                }
+                if (write.attempts() + 1 >= properties.getMaxAttempts()) {
+                    pending.remove(write.key(), write);
+                    deadLetters.increment();
+                    completed++;
+                    log.error("Изменение {} версии {} отброшено после {} попыток", write.key(), write.version(),
+                            write.attempts() + 1, e);
+                } else {
+                    pending.computeIfPresent(write.key(), (key, current) ->
+                            current == write ? write.withFailedAttempt() : current);
+                }
+            }
+        }
+        return new BatchResult(completed, false);
+    }
+
+    private void complete(PendingWrite write) {
+        // Если сущность успели изменить ещё раз, новая версия остаётся в очереди
+        pending.remove(write.key(), write);
+    }
+
+    /**
+     * @param completed        сколько записей пачки покинули очередь (записаны или отправлены в dead letter)
+     * @param storeUnavailable база недоступна, сброс нужно прекратить
+     */
+    private record BatchResult(int completed, boolean storeUnavailable) {
+    }
+}
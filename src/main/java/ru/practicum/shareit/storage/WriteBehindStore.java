@@ -0,0 +1,117 @@
+package ru.practicum.shareit.storage;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.practicum.shareit.event.EntityType;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.user.model.User;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * JDBC-часть режима write-behind: пачка изменений пишется одной транзакцией через MERGE
+ * (поддерживается и H2, и PostgreSQL 15+), идентификаторы берутся из памяти как есть.
+ */
+@RequiredArgsConstructor
+public class WriteBehindStore {
+    private static final String UPSERT_USER = """
+            MERGE INTO users AS t
+            USING (SELECT CAST(? AS BIGINT) AS id, CAST(? AS VARCHAR(255)) AS name,
+                          CAST(? AS VARCHAR(512)) AS email) AS s
+            ON t.id = s.id
+            WHEN MATCHED THEN UPDATE SET name = s.name, email = s.email
+            WHEN NOT MATCHED THEN INSERT (id, name, email) VALUES (s.id, s.name, s.email)
+            """;
+    private static final String UPSERT_ITEM = """
+            MERGE INTO items AS t
+            USING (SELECT CAST(? AS BIGINT) AS id, CAST(? AS VARCHAR(255)) AS name,
+                          CAST(? AS VARCHAR(2000)) AS description, CAST(? AS BOOLEAN) AS is_available,
+                          CAST(? AS BIGINT) AS owner_id, CAST(? AS BIGINT) AS request_id,
+                          CAST(? AS DOUBLE PRECISION) AS latitude, CAST(? AS DOUBLE PRECISION) AS longitude) AS s
+            ON t.id = s.id
+            WHEN MATCHED THEN UPDATE SET name = s.name, description = s.description,
+                is_available = s.is_available, owner_id = s.owner_id, request_id = s.request_id,
+                latitude = s.latitude, longitude = s.longitude
+            WHEN NOT MATCHED THEN INSERT (id, name, description, is_available, owner_id, request_id,
+                latitude, longitude)
+                VALUES (s.id, s.name, s.description, s.is_available, s.owner_id, s.request_id,
+                s.latitude, s.longitude)
+            """;
+    private static final String DELETE_USER = "DELETE FROM users WHERE id = ?";
+    private static final String DELETE_ITEM = "DELETE FROM items WHERE id = ?";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+
+    /**
+     * Пишет пачку в одной транзакции. Порядок учитывает внешний ключ items.owner_id:
+     * сначала пользователи, потом вещи, удаления — в обратном порядке.
+     */
+    public void write(List<PendingWrite> writes) {
+        List<Object[]> userUpserts = new ArrayList<>();
+        List<Object[]> itemUpserts = new ArrayList<>();
+        List<Object[]> itemDeletes = new ArrayList<>();
+        List<Object[]> userDeletes = new ArrayList<>();
+
+        for (PendingWrite write : writes) {
+            EntityKey key = write.key();
+            if (key.type() == EntityType.USER) {
+                if (write.isDelete()) {
+                    userDeletes.add(new Object[]{key.id()});
+                } else {
+                    User user = (User) write.snapshot();
+                    userUpserts.add(new Object[]{user.getId(), user.getName(), user.getEmail()});
+                }
+            } else {
+                if (write.isDelete()) {
+                    itemDeletes.add(new Object[]{key.id()});
+                } else {
+                    Item item = (Item) write.snapshot();
+                    itemUpserts.add(new Object[]{item.getId(), item.getName(), item.getDescription(),
+                            item.getAvailable(), item.getOwner().getId(), item.getRequestId(),
+                            item.getLatitude(), item.getLongitude()});
+                }
+            }
+        }
+
+        transactionTemplate.executeWithoutResult(status -> {
+            batchUpdate(UPSERT_USER, userUpserts);
+            batchUpdate(UPSERT_ITEM, itemUpserts);
+            batchUpdate(DELETE_ITEM, itemDeletes);
+            batchUpdate(DELETE_USER, userDeletes);
+        });
+    }
+
+    public List<User> loadUsers() {
+        return jdbcTemplate.query("SELECT id, name, email FROM users ORDER BY id", (rs, rowNum) -> User.builder()
+                .id(rs.getLong("id"))
+                .name(rs.getString("name"))
+                .email(rs.getString("email"))
+                .build());
+    }
+
+    public List<Item> loadItems(Function<Long, User> owners) {
+        return jdbcTemplate.query("""
+                SELECT id, name, description, is_available, owner_id, request_id, latitude, longitude
+                FROM items ORDER BY id
+                """, (rs, rowNum) -> Item.builder()
+                .id(rs.getLong("id"))
+                .name(rs.getString("name"))
+                .description(rs.getString("description"))
+                .available(rs.getBoolean("is_available"))
+                .owner(owners.apply(rs.getLong("owner_id")))
+                .requestId(rs.getObject("request_id", Long.class))
+                .latitude(rs.getObject("latitude", Double.class))
+                .longitude(rs.getObject("longitude", Double.class))
+                .build());
+    }
+
+    private void batchUpdate(String sql, List<Object[]> rows) {
+        if (!rows.isEmpty()) {
+            jdbcTemplate.batchUpdate(sql, rows);
+        }
+    }
+}
@@ -0,0 +1,70 @@
+package ru.practicum.shareit.storage;
+
+import lombok.RequiredArgsConstructor;
+import ru.practicum.shareit.event.EntityType;
+import ru.practicum.shareit.user.model.User;
+import ru.practicum.shareit.user.storage.UserRepository;
+import ru.practicum.shareit.user.storage.UserRepositoryImpl;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Хранилище пользователей в режиме write-behind: читает и пишет в память, а изменения ставит в очередь на запись в базу.
+ */
+@RequiredArgsConstructor
+public class WriteBehindUserRepository implements UserRepository {
+    private final UserRepositoryImpl delegate;
+    private final WriteBehindQueue queue;
+
+    @Override
+    public User save(User user) {
+        queue.ensureCapacity();
+        User saved = delegate.save(user);
+        markDirty(saved.getId());
+        return saved;
+    }
+
+    @Override
+    public void deleteById(Long id) {
+        queue.ensureCapacity();
+        delegate.deleteById(id);
+        markDirty(id);
+    }
+
+    @Override
+    public Optional<User> findById(Long id) {
+        return delegate.findById(id);
+    }
+
+    @Override
+    public List<User> findAllById(Collection<Long> ids) {
+        return delegate.findAllById(ids);
+    }
+
+    @Override
+    public Optional<User> findByEmail(String email) {
+        return delegate.findByEmail(email);
+    }
+
+    @Override
+    public List<User> findAll() {
+        return delegate.findAll();
+    }
+
+    @Override
+    public User getById(Long id) {
+        return delegate.getById(id);
+    }
+
+    private void markDirty(Long id) {
+        queue.markDirty(EntityType.USER, id, () -> delegate.findById(id)
+                .map(user -> User.builder()
+                        .id(user.getId())
+                        .name(user.getName())
+                        .email(user.getEmail())
+                        .build())
+                .orElse(null));
+    }
+}
@@ -3,6 +3,7 @@ package ru.practicum.shareit.user.controller;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import org.springframework.web.bind.annotation.*;
+import ru.practicum.shareit.common.dto.LookupResultDto;
 import ru.practicum.shareit.user.service.UserService;
 import ru.practicum.shareit.user.dto.UserDto;
 
@@ -19,6 +20,11 @@ public class UserController {
         return userService.getAll();
     }
 
+    @GetMapping(params = "ids")
+    public LookupResultDto<UserDto> getByIds(@RequestParam List<Long> ids) {
+        return userService.getByIds(ids);
+    }
+
     @GetMapping("/{id}")
     public UserDto getById(@PathVariable Long id) {
         return userService.getById(id);
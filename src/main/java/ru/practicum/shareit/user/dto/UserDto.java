@@ -1,5 +1,7 @@
 package ru.practicum.shareit.user.dto;
 
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.annotation.JsonPropertyOrder;
 import lombok.*;
 
 import jakarta.validation.constraints.Email;
@@ -9,12 +11,17 @@ import jakarta.validation.constraints.NotBlank;
 @Builder
 @NoArgsConstructor
 @AllArgsConstructor
+@JsonPropertyOrder({"id", "name", "email"})
 public class UserDto {
+    // Номера полей — контракт CBOR (см. FieldIdModule): не менять и не переиспользовать, новым полям — следующий свободный номер
+    @JsonProperty(index = 1)
     private Long id;
 
+    @JsonProperty(index = 2)
     @NotBlank
     private String name;
 
+    @JsonProperty(index = 3)
     @NotBlank
     @Email
     private String email;
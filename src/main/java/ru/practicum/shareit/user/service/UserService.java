@@ -1,5 +1,6 @@
 package ru.practicum.shareit.user.service;
 
+import ru.practicum.shareit.common.dto.LookupResultDto;
 import ru.practicum.shareit.user.dto.UserDto;
 import ru.practicum.shareit.user.model.User;
 
@@ -10,6 +11,8 @@ public interface UserService {
 
     UserDto getById(Long id);
 
+    LookupResultDto<UserDto> getByIds(List<Long> ids);
+
     UserDto create(UserDto userDto);
 
     UserDto update(Long id, UserDto userDto);
@@ -3,6 +3,12 @@ package ru.practicum.shareit.user.service;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import ru.practicum.shareit.common.BatchLookup;
+import ru.practicum.shareit.common.RequestIdentityMap;
+import ru.practicum.shareit.common.dto.LookupResultDto;
+import ru.practicum.shareit.event.ChangeEventBus;
+import ru.practicum.shareit.event.ChangeType;
+import ru.practicum.shareit.event.EntityType;
 import ru.practicum.shareit.exception.ConflictException;
 import ru.practicum.shareit.exception.ValidationException;
 import ru.practicum.shareit.user.dto.UserDto;
@@ -16,6 +22,8 @@ import java.util.List;
 @RequiredArgsConstructor
 public class UserServiceImpl implements UserService {
     private final UserRepository userRepository;
+    private final ChangeEventBus changeEventBus;
+    private final RequestIdentityMap requestIdentityMap;
 
     @Override
     public List<UserDto> getAll() {
@@ -28,7 +36,13 @@ public class UserServiceImpl implements UserService {
             throw new ValidationException("User ID cannot be null");
         }
 
-        return UserMapper.toUserDto(userRepository.getById(id));
+        return UserMapper.toUserDto(getUserById(id));
+    }
+
+    @Override
+    public LookupResultDto<UserDto> getByIds(List<Long> ids) {
+        return BatchLookup.lookup(ids, "пользователей", userRepository::findAllById,
+                User::getId, UserMapper::toUserDto);
     }
 
     @Override
@@ -40,7 +54,9 @@ public class UserServiceImpl implements UserService {
 
         validateUserDto(userDto);
         User user = UserMapper.toUser(userDto);
-        return UserMapper.toUserDto(userRepository.save(user));
+        UserDto savedDto = UserMapper.toUserDto(userRepository.save(user));
+        changeEventBus.publish(EntityType.USER, ChangeType.CREATED, savedDto.getId(), savedDto);
+        return savedDto;
     }
 
     @Override
@@ -58,20 +74,25 @@ public class UserServiceImpl implements UserService {
             throw new ValidationException("Не указаны поля для обновления");
         }
 
-        User existingUser = userRepository.getById(id);
+        // Изменения вносятся в копию: если сохранение отклонят, пользователь в памяти останется прежним
+        User changedUser = getUserById(id).toBuilder().build();
 
         if (userDto.getName() != null) {
-            existingUser.setName(userDto.getName());
+            changedUser.setName(userDto.getName());
         }
 
-        if (userDto.getEmail() != null && !existingUser.getEmail().equals(userDto.getEmail())) {
+        if (userDto.getEmail() != null && !changedUser.getEmail().equals(userDto.getEmail())) {
             if (userRepository.findByEmail(userDto.getEmail()).isPresent()) {
                 throw new ConflictException("Email уже используется другим пользователем");
             }
-            existingUser.setEmail(userDto.getEmail());
+            changedUser.setEmail(userDto.getEmail());
         }
 
-        return UserMapper.toUserDto(userRepository.save(existingUser));
+        User updatedUser = userRepository.save(changedUser);
+        requestIdentityMap.put(User.class, id, updatedUser);
+        UserDto updatedDto = UserMapper.toUserDto(updatedUser);
+        changeEventBus.publish(EntityType.USER, ChangeType.UPDATED, updatedDto.getId(), updatedDto);
+        return updatedDto;
     }
 
     @Override
@@ -81,7 +102,12 @@ public class UserServiceImpl implements UserService {
             throw new ValidationException("User ID cannot be null");
         }
 
+        boolean existed = userRepository.findById(id).isPresent();
         userRepository.deleteById(id);
+        requestIdentityMap.evict(User.class, id);
+        if (existed) {
+            changeEventBus.publish(EntityType.USER, ChangeType.DELETED, id, null);
+        }
     }
 
     @Override
@@ -90,7 +116,7 @@ public class UserServiceImpl implements UserService {
             throw new ValidationException("User ID cannot be null");
         }
 
-        return userRepository.getById(id);
+        return requestIdentityMap.get(User.class, id, userRepository::getById);
     }
 
     private void validateUserDto(UserDto userDto) {
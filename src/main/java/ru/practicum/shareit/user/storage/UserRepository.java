@@ -2,6 +2,7 @@ package ru.practicum.shareit.user.storage;
 
 import ru.practicum.shareit.user.model.User;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -10,6 +11,8 @@ public interface UserRepository {
 
     Optional<User> findById(Long id);
 
+    List<User> findAllById(Collection<Long> ids);
+
     Optional<User> findByEmail(String email);
 
     List<User> findAll();
@@ -7,6 +7,7 @@ import ru.practicum.shareit.user.model.User;
 
 import java.util.*;
 import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
 
 @Repository
 public class UserRepositoryImpl implements UserRepository {
@@ -44,6 +45,14 @@ public class UserRepositoryImpl implements UserRepository {
         return user;
     }
 
+    /**
+     * Загружает уже сохранённого где-то пользователя с его идентификатором, не выдавая новых.
+     */
+    public void restore(User user) {
+        users.put(user.getId(), user);
+        idCounter.accumulateAndGet(user.getId() + 1, Math::max);
+    }
+
     private void checkEmailUniqueness(String email) {
         findByEmail(email).ifPresent(u -> {
             throw new ConflictException("Email уже используется другим пользователем");
@@ -55,6 +64,14 @@ public class UserRepositoryImpl implements UserRepository {
         return Optional.ofNullable(users.get(id));
     }
 
+    @Override
+    public List<User> findAllById(Collection<Long> ids) {
+        return ids.stream()
+                .map(users::get)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toList());
+    }
+
     @Override
     public Optional<User> findByEmail(String email) {
         return users.values().stream()
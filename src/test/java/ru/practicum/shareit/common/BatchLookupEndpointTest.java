@@ -0,0 +1,117 @@
+package ru.practicum.shareit.common;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.UUID;
+import java.util.stream.Collectors;
+import java.util.stream.LongStream;
+
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.hasSize;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@ActiveProfiles("test")
+@AutoConfigureMockMvc
+@SpringBootTest(properties = {
+        "shareit.rate-limit.enabled=false",
+        "shareit.warmup.enabled=false"
+})
+class BatchLookupEndpointTest {
+    private static final String USER_HEADER = "X-Sharer-User-Id";
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Test
+    void usersAreReturnedInRequestOrderWithDuplicatesCollapsed() throws Exception {
+        long first = createUser();
+        long second = createUser();
+        long missing = second + 1_000;
+
+        mockMvc.perform(get("/users").param("ids", ids(second, missing, first, second)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.found[*].id", contains((int) second, (int) first)))
+                .andExpect(jsonPath("$.missingIds", contains((int) missing)));
+    }
+
+    @Test
+    void itemsAreReturnedInRequestOrderWithMissingIds() throws Exception {
+        long owner = createUser();
+        long first = createItem(owner);
+        long second = createItem(owner);
+        long missing = second + 1_000;
+
+        mockMvc.perform(get("/items").header(USER_HEADER, owner).param("ids", ids(first, first, missing, second)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.found[*].id", contains((int) first, (int) second)))
+                .andExpect(jsonPath("$.missingIds", contains((int) missing)));
+    }
+
+    @Test
+    void emptyIdListIsRejected() throws Exception {
+        long owner = createUser();
+
+        mockMvc.perform(get("/users").param("ids", ""))
+                .andExpect(status().isBadRequest());
+        mockMvc.perform(get("/items").header(USER_HEADER, owner).param("ids", ""))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void atMostHundredDistinctIdsAreAccepted() throws Exception {
+        long base = 1_000_000;
+        String hundred = LongStream.range(base, base + BatchLookup.MAX_IDS)
+                .mapToObj(String::valueOf)
+                .collect(Collectors.joining(","));
+
+        mockMvc.perform(get("/users").param("ids", hundred + "," + base))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.found", hasSize(0)))
+                .andExpect(jsonPath("$.missingIds", hasSize(BatchLookup.MAX_IDS)));
+        mockMvc.perform(get("/users").param("ids", hundred + "," + (base + BatchLookup.MAX_IDS)))
+                .andExpect(status().isBadRequest());
+    }
+
+    private long createUser() throws Exception {
+        String email = UUID.randomUUID() + "@lookup.test";
+        String body = mockMvc.perform(post("/users")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"name\":\"lookup\",\"email\":\"" + email + "\"}"))
+                .andExpect(status().isOk())
+                .andReturn()
+                .getResponse()
+                .getContentAsString();
+        return objectMapper.readTree(body).get("id").asLong();
+    }
+
+    private long createItem(long owner) throws Exception {
+        String body = mockMvc.perform(post("/items")
+                        .header(USER_HEADER, owner)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"name\":\"Дрель\",\"description\":\"Ударная\",\"available\":true}"))
+                .andExpect(status().isOk())
+                .andReturn()
+                .getResponse()
+                .getContentAsString();
+        return objectMapper.readTree(body).get("id").asLong();
+    }
+
+    private static String ids(long... ids) {
+        return LongStream.of(ids)
+                .mapToObj(String::valueOf)
+                .collect(Collectors.joining(","));
+    }
+}
@@ -0,0 +1,143 @@
+package ru.practicum.shareit.common;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+import ru.practicum.shareit.event.ChangeEventBus;
+import ru.practicum.shareit.event.ChangeEventProperties;
+import ru.practicum.shareit.exception.NotFoundException;
+import ru.practicum.shareit.item.dto.ItemDto;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.service.ItemServiceImpl;
+import ru.practicum.shareit.item.storage.ItemRepositoryImpl;
+import ru.practicum.shareit.user.model.User;
+import ru.practicum.shareit.user.service.UserServiceImpl;
+import ru.practicum.shareit.user.storage.UserRepositoryImpl;
+
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class RequestIdentityMapTest {
+    private final CountingUserRepository userRepository = new CountingUserRepository();
+    private final CountingItemRepository itemRepository = new CountingItemRepository();
+    private final RequestIdentityMap identityMap = new RequestIdentityMap();
+    private final ChangeEventBus changeEventBus = new ChangeEventBus(new ChangeEventProperties(),
+            new SimpleMeterRegistry());
+    private final UserServiceImpl userService = new UserServiceImpl(userRepository, changeEventBus, identityMap);
+    private final ItemServiceImpl itemService = new ItemServiceImpl(itemRepository, userService,
+            changeEventBus, identityMap);
+
+    private Long userId;
+
+    @BeforeEach
+    void setUp() {
+        userId = userRepository.save(User.builder().name("Анна").email("anna@example.com").build()).getId();
+    }
+
+    @AfterEach
+    void tearDown() {
+        RequestContextHolder.resetRequestAttributes();
+    }
+
+    @Test
+    void loadsEntityAtMostOncePerRequest() {
+        bindRequest();
+
+        User first = userService.getUserById(userId);
+        User second = userService.getUserById(userId);
+
+        assertSame(first, second);
+        assertEquals(1, userRepository.lookups.get());
+    }
+
+    @Test
+    void loadsDirectlyOutsideRequest() {
+        userService.getUserById(userId);
+        userService.getUserById(userId);
+
+        assertEquals(2, userRepository.lookups.get());
+    }
+
+    @Test
+    void doesNotShareEntitiesBetweenRequests() {
+        bindRequest();
+        userService.getUserById(userId);
+        RequestContextHolder.resetRequestAttributes();
+
+        bindRequest();
+        userService.getUserById(userId);
+
+        assertEquals(2, userRepository.lookups.get());
+    }
+
+    @Test
+    void doesNotCacheFailedLookups() {
+        bindRequest();
+
+        assertThrows(NotFoundException.class, () -> userService.getUserById(404L));
+        assertThrows(NotFoundException.class, () -> userService.getUserById(404L));
+
+        assertEquals(2, userRepository.lookups.get());
+    }
+
+    @Test
+    void itemUpdateStoresSavedEntityForRestOfRequest() {
+        bindRequest();
+        ItemDto created = itemService.create(userId, ItemDto.builder()
+                .name("Дрель")
+                .description("Ударная")
+                .available(true)
+                .build());
+
+        itemService.update(userId, created.getId(), ItemDto.builder().name("Перфоратор").build());
+        Item item = itemService.getItemById(created.getId());
+
+        assertSame(itemRepository.lastSaved, item);
+        assertEquals("Перфоратор", item.getName());
+        assertEquals(0, itemRepository.lookups.get());
+    }
+
+    private void bindRequest() {
+        RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(new MockHttpServletRequest()));
+    }
+
+    private static class CountingUserRepository extends UserRepositoryImpl {
+        private final AtomicInteger lookups = new AtomicInteger();
+
+        @Override
+        public Optional<User> findById(Long id) {
+            lookups.incrementAndGet();
+            return super.findById(id);
+        }
+    }
+
+    /**
+     * Отдаёт из save копию, как хранилище с отдельным представлением сущности.
+     */
+    private static class CountingItemRepository extends ItemRepositoryImpl {
+        private final AtomicInteger lookups = new AtomicInteger();
+        private Item lastSaved;
+
+        @Override
+        public Item save(Item item) {
+            Item saved = super.save(item);
+            lastSaved = new Item(saved.getId(), saved.getName(), saved.getDescription(), saved.getAvailable(),
+                    saved.getOwner(), saved.getRequestId(), saved.getLatitude(), saved.getLongitude());
+            return lastSaved;
+        }
+
+        @Override
+        public Optional<Item> findById(Long id) {
+            lookups.incrementAndGet();
+            return super.findById(id);
+        }
+    }
+}
@@ -0,0 +1,79 @@
+package ru.practicum.shareit.config;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.databind.CBORMapper;
+import org.junit.jupiter.api.Test;
+import ru.practicum.shareit.item.dto.ItemDto;
+import ru.practicum.shareit.user.dto.UserDto;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class FieldIdModuleTest {
+    private final ObjectMapper mapper = CBORMapper.builder()
+            .disable(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES)
+            .addModule(new FieldIdModule(ItemDto.class, UserDto.class))
+            .build();
+
+    @Test
+    void writesIntegerKeysAndSkipsNulls() throws Exception {
+        UserDto user = UserDto.builder().id(1L).name("a").email("b").build();
+
+        // Карта из трёх пар: ключи — целые 1, 2, 3, без маркера конца
+        assertArrayEquals(new byte[]{(byte) 0xA3, 0x01, 0x01, 0x02, 0x61, 'a', 0x03, 0x61, 'b'},
+                mapper.writeValueAsBytes(user));
+        assertArrayEquals(new byte[]{(byte) 0xA1, 0x02, 0x61, 'a'},
+                mapper.writeValueAsBytes(UserDto.builder().name("a").build()));
+    }
+
+    @Test
+    void readsBackWhatItWrites() throws Exception {
+        ItemDto item = ItemDto.builder()
+                .id(7L)
+                .name("Дрель")
+                .description("Ударная")
+                .available(true)
+                .latitude(55.75)
+                .longitude(37.62)
+                .build();
+
+        byte[] payload = mapper.writeValueAsBytes(List.of(item));
+
+        assertEquals(List.of(item), List.of(mapper.readValue(payload, ItemDto[].class)));
+    }
+
+    @Test
+    void skipsUnknownIds() throws Exception {
+        // Так выглядит UserDto от более новой версии сервера с полем 9
+        byte[] payload = new CBORMapper().writeValueAsBytes(Map.of(2, "a", 9, "новое"));
+
+        assertEquals(UserDto.builder().name("a").build(), mapper.readValue(payload, UserDto.class));
+    }
+
+    @Test
+    void rejectsMissingOrDuplicateIds() {
+        assertThrows(IllegalStateException.class, () -> new FieldIdModule(MissingId.class));
+        assertThrows(IllegalStateException.class, () -> new FieldIdModule(DuplicateId.class));
+    }
+
+    private static class MissingId {
+        @JsonProperty(index = 1)
+        private Long id;
+
+        private String name;
+    }
+
+    private static class DuplicateId {
+        @JsonProperty(index = 1)
+        private Long id;
+
+        @JsonProperty(index = 1)
+        private String name;
+    }
+}
@@ -0,0 +1,233 @@
+package ru.practicum.shareit.event;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.BooleanSupplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ChangeEventBusTest {
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private ChangeEventBus bus;
+
+    @AfterEach
+    void tearDown() {
+        if (bus != null) {
+            bus.stop();
+        }
+    }
+
+    @Test
+    void deliversConcurrentPublicationsInSequenceOrder() throws Exception {
+        bus = bus(1024, BackpressurePolicy.DROP_OLDEST, 1024);
+        bus.start();
+        RecordingListener listener = new RecordingListener();
+        bus.subscribe(listener, null);
+        awaitSubscribers(1);
+
+        List<Thread> publishers = new ArrayList<>();
+        for (int t = 0; t < 4; t++) {
+            Thread publisher = new Thread(() -> {
+                for (int i = 0; i < 100; i++) {
+                    bus.publish(EntityType.ITEM, ChangeType.CREATED, (long) i, null);
+                }
+            });
+            publishers.add(publisher);
+            publisher.start();
+        }
+        for (Thread publisher : publishers) {
+            publisher.join();
+        }
+
+        await(() -> listener.sequences().size() == 400);
+        List<Long> sequences = listener.sequences();
+        for (int i = 0; i < sequences.size(); i++) {
+            assertEquals(i + 1, sequences.get(i));
+        }
+    }
+
+    @Test
+    void replaysHistoryAfterSinceThenLiveEvents() {
+        bus = bus(16, BackpressurePolicy.DROP_OLDEST, 16);
+        bus.start();
+        publish(5);
+        awaitDispatched();
+
+        RecordingListener listener = new RecordingListener();
+        bus.subscribe(listener, 2L);
+        await(() -> listener.sequences().size() == 3);
+        bus.publish(EntityType.USER, ChangeType.UPDATED, 1L, null);
+
+        await(() -> listener.sequences().size() == 4);
+        assertEquals(List.of(3L, 4L, 5L, 6L), listener.sequences());
+        assertEquals(List.of(), listener.resets);
+    }
+
+    @Test
+    void resetsWhenSinceIsEvictedFromHistory() {
+        bus = bus(4, BackpressurePolicy.DROP_OLDEST, 16);
+        bus.start();
+        publish(10);
+        awaitDispatched();
+
+        RecordingListener listener = new RecordingListener();
+        bus.subscribe(listener, 2L);
+
+        await(() -> listener.sequences().size() == 4);
+        assertEquals(List.of(7L), listener.resets);
+        assertEquals(List.of(7L, 8L, 9L, 10L), listener.sequences());
+    }
+
+    @Test
+    void resetsWhenSinceIsFromFuture() {
+        bus = bus(16, BackpressurePolicy.DROP_OLDEST, 16);
+        bus.start();
+        publish(3);
+        awaitDispatched();
+
+        RecordingListener listener = new RecordingListener();
+        bus.subscribe(listener, 100L);
+
+        await(() -> listener.sequences().size() == 3);
+        assertEquals(List.of(1L), listener.resets);
+        assertEquals(List.of(1L, 2L, 3L), listener.sequences());
+    }
+
+    @Test
+    void signalsResetToSubscribersWhenEventsAreOverwrittenBeforeDispatch() {
+        bus = bus(4, BackpressurePolicy.DROP_OLDEST, 16);
+        RecordingListener listener = new RecordingListener();
+        bus.subscribe(listener, null);
+        publish(10);
+
+        bus.start();
+
+        await(() -> listener.sequences().size() == 4);
+        assertEquals(List.of(7L), listener.resets);
+        assertEquals(List.of(7L, 8L, 9L, 10L), listener.sequences());
+        assertEquals(6, meterRegistry.counter("shareit.events.dropped").count());
+    }
+
+    @Test
+    void blockPolicyHoldsPublisherUntilSlotIsDispatched() throws Exception {
+        bus = bus(4, BackpressurePolicy.BLOCK, 16);
+        publish(4);
+        AtomicBoolean fifthPublished = new AtomicBoolean();
+        Thread publisher = new Thread(() -> {
+            bus.publish(EntityType.ITEM, ChangeType.CREATED, 5L, null);
+            fifthPublished.set(true);
+        });
+        publisher.start();
+
+        publisher.join(200);
+        assertFalse(fifthPublished.get());
+
+        RecordingListener listener = new RecordingListener();
+        bus.subscribe(listener, 0L);
+        bus.start();
+        publisher.join(TimeUnit.SECONDS.toMillis(5));
+
+        assertTrue(fifthPublished.get());
+        await(() -> listener.sequences().size() == 5);
+        assertEquals(List.of(1L, 2L, 3L, 4L, 5L), listener.sequences());
+        assertEquals(0, meterRegistry.counter("shareit.events.dropped").count());
+    }
+
+    @Test
+    void slowSubscriberIsDisconnectedWithoutDelayingOthers() {
+        bus = bus(1024, BackpressurePolicy.DROP_OLDEST, 4);
+        bus.start();
+        CountDownLatch release = new CountDownLatch(1);
+        AtomicBoolean laggingNotified = new AtomicBoolean();
+        bus.subscribe(new ChangeEventListener() {
+            @Override
+            public void onEvents(List<ChangeEvent> events) throws Exception {
+                release.await();
+            }
+
+            @Override
+            public void onLagging() {
+                laggingNotified.set(true);
+            }
+        }, null);
+        RecordingListener fast = new RecordingListener();
+        bus.subscribe(fast, null);
+        awaitSubscribers(2);
+
+        for (int i = 1; i <= 50; i++) {
+            bus.publish(EntityType.ITEM, ChangeType.UPDATED, 1L, null);
+            int published = i;
+            await(() -> fast.sequences().size() == published);
+        }
+
+        assertEquals(1, meterRegistry.counter("shareit.events.subscribers.lagging").count());
+        release.countDown();
+        await(laggingNotified::get);
+    }
+
+    private ChangeEventBus bus(int bufferSize, BackpressurePolicy backpressure, int subscriberBufferSize) {
+        ChangeEventProperties properties = new ChangeEventProperties();
+        properties.setBufferSize(bufferSize);
+        properties.setMaxBatchSize(8);
+        properties.setSubscriberBufferSize(subscriberBufferSize);
+        properties.setMaxDispatchDelay(Duration.ofMillis(1));
+        properties.setBackpressure(backpressure);
+        return new ChangeEventBus(properties, meterRegistry);
+    }
+
+    private void publish(int count) {
+        for (int i = 0; i < count; i++) {
+            bus.publish(EntityType.ITEM, ChangeType.CREATED, (long) i, null);
+        }
+    }
+
+    private void awaitDispatched() {
+        await(() -> meterRegistry.get("shareit.events.lag").gauge().value() == 0);
+    }
+
+    private void awaitSubscribers(int count) {
+        await(() -> meterRegistry.get("shareit.events.subscribers").gauge().value() == count);
+    }
+
+    private static void await(BooleanSupplier condition) {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (!condition.getAsBoolean()) {
+            if (System.nanoTime() > deadline) {
+                throw new AssertionError("Условие не выполнилось за 5 секунд");
+            }
+            Thread.onSpinWait();
+        }
+    }
+
+    private static class RecordingListener implements ChangeEventListener {
+        private final List<Long> received = Collections.synchronizedList(new ArrayList<>());
+        private final List<Long> resets = Collections.synchronizedList(new ArrayList<>());
+
+        @Override
+        public void onEvents(List<ChangeEvent> events) {
+            events.forEach(event -> received.add(event.sequence()));
+        }
+
+        @Override
+        public void onReset(long oldestAvailableSequence) {
+            resets.add(oldestAvailableSequence);
+        }
+
+        List<Long> sequences() {
+            synchronized (received) {
+                return new ArrayList<>(received);
+            }
+        }
+    }
+}
@@ -0,0 +1,79 @@
+package ru.practicum.shareit.item.storage;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class ItemGeoIndexTest {
+    private static final double LAT = 55.75;
+    private static final double LON = 37.62;
+
+    private final ItemGeoIndex index = new ItemGeoIndex(0.1);
+
+    @Test
+    void findsItemsInsideRadiusNearestFirst() {
+        index.put(1L, LAT + 0.1, LON);
+        index.put(2L, LAT + 0.01, LON);
+        index.put(3L, LAT + 1.0, LON);
+
+        assertEquals(List.of(2L), index.findWithin(LAT, LON, 5));
+        assertEquals(List.of(2L, 1L), index.findWithin(LAT, LON, 20));
+        assertEquals(List.of(), index.findWithin(LAT - 1.0, LON, 20));
+    }
+
+    @Test
+    void findsItemsAcrossAntimeridian() {
+        index.put(1L, 0.0, 179.99);
+        index.put(2L, 0.0, -179.99);
+
+        assertEquals(List.of(1L, 2L), index.findWithin(0.0, 179.995, 5));
+        assertEquals(List.of(2L, 1L), index.findWithin(0.0, -179.995, 5));
+    }
+
+    @Test
+    void findsItemsNearPoleOnOppositeMeridians() {
+        index.put(1L, 89.95, 0.0);
+        index.put(2L, -89.95, 90.0);
+
+        assertEquals(List.of(1L), index.findWithin(89.95, 180.0, 15));
+        assertEquals(List.of(2L), index.findWithin(-89.95, -90.0, 15));
+        assertEquals(List.of(), index.findWithin(89.95, 180.0, 5));
+    }
+
+    @Test
+    void movesItemBetweenCells() {
+        index.put(1L, LAT, LON);
+
+        index.put(1L, LAT + 2.0, LON + 2.0);
+
+        assertEquals(List.of(), index.findWithin(LAT, LON, 10));
+        assertEquals(List.of(1L), index.findWithin(LAT + 2.0, LON + 2.0, 10));
+    }
+
+    @Test
+    void dropsItemWhenCoordinatesCleared() {
+        index.put(1L, LAT, LON);
+        index.put(2L, LAT, LON);
+
+        index.put(1L, null, null);
+        index.remove(2L);
+
+        assertEquals(List.of(), index.findWithin(LAT, LON, 10));
+    }
+
+    @Test
+    void fallsBackToFullScanForHugeRadius() {
+        index.put(1L, LAT, LON);
+        index.put(2L, -LAT, -LON);
+
+        assertEquals(List.of(1L, 2L), index.findWithin(LAT, LON, 20_100));
+    }
+
+    @Test
+    void distanceMatchesGreatCircle() {
+        assertEquals(111.19, ItemGeoIndex.distanceKm(0, 0, 1, 0), 0.01);
+        assertEquals(20_015.09, ItemGeoIndex.distanceKm(0, 0, 0, 180), 0.01);
+    }
+}
@@ -0,0 +1,42 @@
+package ru.practicum.shareit.load;
+
+import java.util.Arrays;
+
+/**
+ * Растущий массив замеров в наносекундах. Не потокобезопасен: у каждого потока нагрузки свой экземпляр,
+ * они сливаются через {@link #addAll(LatencySamples)} после остановки.
+ */
+class LatencySamples {
+    private long[] values = new long[1024];
+    private int size;
+
+    void add(long nanos) {
+        if (size == values.length) {
+            values = Arrays.copyOf(values, size * 2);
+        }
+        values[size++] = nanos;
+    }
+
+    void addAll(LatencySamples other) {
+        for (int i = 0; i < other.size; i++) {
+            add(other.values[i]);
+        }
+    }
+
+    int size() {
+        return size;
+    }
+
+    /**
+     * @param percentile значение от 0 до 100, например 99.9
+     */
+    long percentile(double percentile) {
+        if (size == 0) {
+            return 0;
+        }
+        long[] sorted = Arrays.copyOf(values, size);
+        Arrays.sort(sorted);
+        int index = (int) Math.ceil(percentile / 100.0 * size) - 1;
+        return sorted[Math.max(0, Math.min(index, size - 1))];
+    }
+}
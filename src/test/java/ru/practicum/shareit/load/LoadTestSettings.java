@@ -0,0 +1,58 @@
+package ru.practicum.shareit.load;
+
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * Параметры нагрузочного прогона. Всё читается из системных свойств, например:
+ * {@code mvn test -Pload -Dload.durationSeconds=60 -Dload.mix=users=10,items=30,search=50,patch=10}.
+ */
+record LoadTestSettings(int seedUsers,
+                        int seedItems,
+                        int concurrency,
+                        int warmupSeconds,
+                        int durationSeconds,
+                        Map<Operation, Integer> mix,
+                        double minThroughput,
+                        double maxP99Millis,
+                        double maxP999Millis,
+                        double maxErrorRate) {
+
+    enum Operation {
+        USERS, ITEMS, SEARCH, PATCH
+    }
+
+    static LoadTestSettings fromSystemProperties() {
+        return new LoadTestSettings(
+                Integer.getInteger("load.seedUsers", 200),
+                Integer.getInteger("load.seedItems", 5_000),
+                Integer.getInteger("load.concurrency", 16),
+                Integer.getInteger("load.warmupSeconds", 5),
+                Integer.getInteger("load.durationSeconds", 20),
+                parseMix(System.getProperty("load.mix", "users=15,items=35,search=40,patch=10")),
+                doubleProperty("load.minThroughput", 500),
+                doubleProperty("load.maxP99Millis", 50),
+                doubleProperty("load.maxP999Millis", 200),
+                doubleProperty("load.maxErrorRate", 0.001));
+    }
+
+    private static Map<Operation, Integer> parseMix(String value) {
+        Map<Operation, Integer> mix = new EnumMap<>(Operation.class);
+        for (String part : value.split(",")) {
+            String[] pair = part.trim().split("=");
+            if (pair.length != 2) {
+                throw new IllegalArgumentException("Invalid load.mix entry: " + part);
+            }
+            mix.put(Operation.valueOf(pair[0].trim().toUpperCase()), Integer.parseInt(pair[1].trim()));
+        }
+        if (mix.values().stream().mapToInt(Integer::intValue).sum() <= 0) {
+            throw new IllegalArgumentException("load.mix must have a positive total weight");
+        }
+        return mix;
+    }
+
+    private static double doubleProperty(String name, double defaultValue) {
+        String value = System.getProperty(name);
+        return value == null ? defaultValue : Double.parseDouble(value);
+    }
+}
@@ -0,0 +1,279 @@
+package ru.practicum.shareit.load;
+
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.test.context.ActiveProfiles;
+import ru.practicum.shareit.load.LoadTestSettings.Operation;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static org.junit.jupiter.api.Assertions.assertAll;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Нагрузочный прогон по засеянным данным на H2-профиле test. По умолчанию исключён из {@code mvn test},
+ * запускается через {@code mvn test -Pload}. Параметры — см. {@link LoadTestSettings}.
+ */
+@Tag("load")
+@ActiveProfiles("test")
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+        properties = "shareit.rate-limit.enabled=false")
+class ShareItLoadTest {
+    private static final String USER_HEADER = "X-Sharer-User-Id";
+    private static final long WINDOW_NANOS = TimeUnit.SECONDS.toNanos(1);
+    private static final double STEADY_P99_TOLERANCE = 1.2;
+    private static final Pattern ID_PATTERN = Pattern.compile("\"id\"\\s*:\\s*(\\d+)");
+    private static final String[] WORDS = {
+        "drill", "ladder", "tent", "bike", "saw", "camera", "kayak", "projector", "grill", "hammer",
+        "tripod", "speaker", "scooter", "sleeping", "bag", "table", "chair", "vacuum", "lamp", "mixer"
+    };
+
+    @LocalServerPort
+    private int port;
+
+    private final HttpClient client = HttpClient.newBuilder()
+            .version(HttpClient.Version.HTTP_1_1)
+            .build();
+    private final LoadTestSettings settings = LoadTestSettings.fromSystemProperties();
+    private final List<Long> userIds = new ArrayList<>();
+    private final List<long[]> items = new ArrayList<>();
+
+    @BeforeAll
+    void seed() throws Exception {
+        for (int i = 0; i < settings.seedUsers(); i++) {
+            String body = "{\"name\":\"user" + i + "\",\"email\":\"user" + i + "@load.test\"}";
+            userIds.add(extractId(send(post("/users", null, body))));
+        }
+
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        for (int i = 0; i < settings.seedItems(); i++) {
+            long ownerId = userIds.get(random.nextInt(userIds.size()));
+            String body = "{\"name\":\"" + randomWord() + " " + i + "\",\"description\":\"" + randomWord()
+                    + " " + randomWord() + "\",\"available\":" + (random.nextInt(4) != 0) + "}";
+            items.add(new long[]{extractId(send(post("/items", ownerId, body))), ownerId});
+        }
+    }
+
+    @Test
+    void trafficMixStaysWithinThresholds() throws Exception {
+        System.out.printf("Load: %d users, %d items, concurrency %d, mix %s%n",
+                userIds.size(), items.size(), settings.concurrency(), settings.mix());
+
+        Result warmup = run(TimeUnit.SECONDS.toNanos(settings.warmupSeconds()));
+        Result result = run(TimeUnit.SECONDS.toNanos(settings.durationSeconds()));
+        long steadyP99 = result.total().percentile(99);
+        System.out.printf("Warm-up: time to steady p99 %.0f s%n", warmup.timeToSteadyP99Seconds(steadyP99));
+        result.print();
+
+        assertAll(
+                () -> assertTrue(result.throughput() >= settings.minThroughput(),
+                        "throughput " + result.throughput() + " < " + settings.minThroughput()),
+                () -> assertTrue(result.total().percentile(99) <= millisToNanos(settings.maxP99Millis()),
+                        "p99 regressed"),
+                () -> assertTrue(result.total().percentile(99.9) <= millisToNanos(settings.maxP999Millis()),
+                        "p999 regressed"),
+                () -> assertTrue(result.errorRate() <= settings.maxErrorRate(),
+                        "error rate " + result.errorRate() + " > " + settings.maxErrorRate()));
+    }
+
+    private Result run(long durationNanos) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(settings.concurrency());
+        long startedAt = System.nanoTime();
+        long deadline = startedAt + durationNanos;
+        List<Future<Worker>> futures = new ArrayList<>();
+        for (int i = 0; i < settings.concurrency(); i++) {
+            futures.add(executor.submit(() -> new Worker(startedAt).runUntil(deadline)));
+        }
+
+        Map<Operation, LatencySamples> byOperation = new EnumMap<>(Operation.class);
+        LatencySamples total = new LatencySamples();
+        SortedMap<Integer, LatencySamples> windows = new TreeMap<>();
+        long errors = 0;
+        for (Future<Worker> future : futures) {
+            Worker worker = future.get();
+            worker.samples.forEach((operation, samples) -> {
+                byOperation.computeIfAbsent(operation, o -> new LatencySamples()).addAll(samples);
+                total.addAll(samples);
+            });
+            worker.windows.forEach((window, samples) ->
+                    windows.computeIfAbsent(window, w -> new LatencySamples()).addAll(samples));
+            errors += worker.errors;
+        }
+        executor.shutdown();
+
+        double elapsedSeconds = (System.nanoTime() - startedAt) / 1e9;
+        return new Result(byOperation, total, windows, errors, elapsedSeconds);
+    }
+
+    private class Worker {
+        private final long startedAt;
+        private final Map<Operation, LatencySamples> samples = new EnumMap<>(Operation.class);
+        private final Map<Integer, LatencySamples> windows = new TreeMap<>();
+        private long errors;
+
+        Worker(long startedAt) {
+            this.startedAt = startedAt;
+        }
+
+        Worker runUntil(long deadline) {
+            while (System.nanoTime() < deadline) {
+                Operation operation = pickOperation();
+                HttpRequest request = buildRequest(operation);
+                long start = System.nanoTime();
+                try {
+                    HttpResponse<String> response = client.send(request, HttpResponse.BodyHandlers.ofString());
+                    if (response.statusCode() >= 400) {
+                        errors++;
+                    }
+                } catch (Exception e) {
+                    errors++;
+                }
+                long latency = System.nanoTime() - start;
+                samples.computeIfAbsent(operation, o -> new LatencySamples()).add(latency);
+                windows.computeIfAbsent((int) ((start - startedAt) / WINDOW_NANOS), w -> new LatencySamples())
+                        .add(latency);
+            }
+            return this;
+        }
+    }
+
+    private Operation pickOperation() {
+        int totalWeight = settings.mix().values().stream().mapToInt(Integer::intValue).sum();
+        int roll = ThreadLocalRandom.current().nextInt(totalWeight);
+        for (Map.Entry<Operation, Integer> entry : settings.mix().entrySet()) {
+            roll -= entry.getValue();
+            if (roll < 0) {
+                return entry.getKey();
+            }
+        }
+        throw new IllegalStateException("Empty traffic mix");
+    }
+
+    private HttpRequest buildRequest(Operation operation) {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        long[] item = items.get(random.nextInt(items.size()));
+        long userId = userIds.get(random.nextInt(userIds.size()));
+        return switch (operation) {
+            case USERS -> get("/users/" + userId, null);
+            case ITEMS -> get("/items/" + item[0], userId);
+            case SEARCH -> get("/items/search?text=" + randomWord(), userId);
+            case PATCH -> patch("/items/" + item[0], item[1],
+                    "{\"description\":\"" + randomWord() + " " + randomWord() + "\"}");
+        };
+    }
+
+    private HttpRequest get(String path, Long userId) {
+        return withUser(HttpRequest.newBuilder(uri(path)).GET(), userId).build();
+    }
+
+    private HttpRequest post(String path, Long userId, String body) {
+        return withUser(HttpRequest.newBuilder(uri(path)), userId)
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(body))
+                .build();
+    }
+
+    private HttpRequest patch(String path, Long userId, String body) {
+        return withUser(HttpRequest.newBuilder(uri(path)), userId)
+                .header("Content-Type", "application/json")
+                .method("PATCH", HttpRequest.BodyPublishers.ofString(body))
+                .build();
+    }
+
+    private HttpRequest.Builder withUser(HttpRequest.Builder builder, Long userId) {
+        return userId == null ? builder : builder.header(USER_HEADER, String.valueOf(userId));
+    }
+
+    private URI uri(String path) {
+        return URI.create("http://localhost:" + port + path);
+    }
+
+    private String send(HttpRequest request) throws Exception {
+        HttpResponse<String> response = client.send(request, HttpResponse.BodyHandlers.ofString());
+        if (response.statusCode() >= 400) {
+            throw new IllegalStateException("Seeding failed: " + response.statusCode() + " " + response.body());
+        }
+        return response.body();
+    }
+
+    private static long extractId(String json) {
+        Matcher matcher = ID_PATTERN.matcher(json);
+        if (!matcher.find()) {
+            throw new IllegalStateException("No id in response: " + json);
+        }
+        return Long.parseLong(matcher.group(1));
+    }
+
+    private static String randomWord() {
+        return WORDS[ThreadLocalRandom.current().nextInt(WORDS.length)];
+    }
+
+    private static long millisToNanos(double millis) {
+        return (long) (millis * 1_000_000);
+    }
+
+    private record Result(Map<Operation, LatencySamples> byOperation,
+                          LatencySamples total,
+                          SortedMap<Integer, LatencySamples> windows,
+                          long errors,
+                          double elapsedSeconds) {
+
+        double throughput() {
+            return total.size() / elapsedSeconds;
+        }
+
+        double errorRate() {
+            return total.size() == 0 ? 1.0 : (double) errors / total.size();
+        }
+
+        /**
+         * Секунда, начиная с которой p99 каждого окна держится в пределах допуска от эталонного p99.
+         * Для прогрева эталон — p99 основного прогона: собственный p99 прогрева завышен его же холодным началом.
+         */
+        double timeToSteadyP99Seconds(long referenceP99) {
+            long limit = (long) (referenceP99 * STEADY_P99_TOLERANCE);
+            int steadyFrom = 0;
+            for (Map.Entry<Integer, LatencySamples> window : windows.entrySet()) {
+                if (window.getValue().percentile(99) > limit) {
+                    steadyFrom = window.getKey() + 1;
+                }
+            }
+            return steadyFrom * (WINDOW_NANOS / 1e9);
+        }
+
+        void print() {
+            System.out.printf("%-8s %10s %10s %10s %10s %10s%n", "op", "count", "req/s", "p50 ms", "p99 ms", "p999 ms");
+            byOperation.forEach((operation, samples) -> printRow(operation.name(), samples));
+            printRow("TOTAL", total);
+            System.out.printf("errors: %d (%.4f%%)%n", errors, errorRate() * 100);
+            System.out.printf("time to steady p99: %.0f s%n", timeToSteadyP99Seconds(total.percentile(99)));
+        }
+
+        private void printRow(String name, LatencySamples samples) {
+            System.out.printf("%-8s %10d %10.1f %10.2f %10.2f %10.2f%n", name, samples.size(),
+                    samples.size() / elapsedSeconds,
+                    samples.percentile(50) / 1e6, samples.percentile(99) / 1e6, samples.percentile(99.9) / 1e6);
+        }
+    }
+}
@@ -0,0 +1,104 @@
+package ru.practicum.shareit.load;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.converter.cbor.MappingJackson2CborHttpMessageConverter;
+import org.springframework.http.converter.json.MappingJackson2HttpMessageConverter;
+import org.springframework.test.context.ActiveProfiles;
+import ru.practicum.shareit.item.dto.ItemDto;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Сравнивает JSON и CBOR на типичном ответе {@code List<ItemDto>}: размер и время сериализации/разбора.
+ * Меряются те мапперы, через которые приложение отвечает клиентам, со всеми настройками Boot.
+ * Запускается вместе с нагрузочными тестами: {@code mvn test -Pload -Dtest=WireFormatBenchmarkTest}.
+ */
+@Tag("load")
+@ActiveProfiles("test")
+@SpringBootTest(properties = "shareit.warmup.enabled=false")
+class WireFormatBenchmarkTest {
+    private static final TypeReference<List<ItemDto>> ITEM_LIST = new TypeReference<>() {
+    };
+
+    private final int listSize = Integer.getInteger("wire.listSize", 1_000);
+    private final int iterations = Integer.getInteger("wire.iterations", 2_000);
+
+    @Autowired
+    private MappingJackson2HttpMessageConverter jsonConverter;
+
+    @Autowired
+    private MappingJackson2CborHttpMessageConverter cborConverter;
+
+    @Test
+    void cborIsSmallerThanJsonForItemLists() throws Exception {
+        List<ItemDto> items = items(listSize);
+        ObjectMapper json = jsonConverter.getObjectMapper();
+        ObjectMapper cbor = cborConverter.getObjectMapper();
+        assertInstanceOf(CBORFactory.class, cbor.getFactory());
+
+        Measurement jsonResult = measure(json, items);
+        Measurement cborResult = measure(cbor, items);
+
+        System.out.printf("%-6s %12s %16s %16s%n", "format", "bytes", "serialize µs", "deserialize µs");
+        jsonResult.print("json");
+        cborResult.print("cbor");
+        System.out.printf("cbor/json size: %.2f%n", (double) cborResult.bytes() / jsonResult.bytes());
+
+        assertEquals(items, cbor.readValue(cbor.writeValueAsBytes(items), ITEM_LIST));
+        assertTrue(cborResult.bytes() < jsonResult.bytes(), "CBOR payload is not smaller than JSON");
+    }
+
+    private Measurement measure(ObjectMapper mapper, List<ItemDto> items) throws Exception {
+        byte[] payload = mapper.writeValueAsBytes(items);
+        for (int i = 0; i < iterations; i++) {
+            mapper.readValue(mapper.writeValueAsBytes(items), ITEM_LIST);
+        }
+
+        long start = System.nanoTime();
+        for (int i = 0; i < iterations; i++) {
+            payload = mapper.writeValueAsBytes(items);
+        }
+        long serializeNanos = (System.nanoTime() - start) / iterations;
+
+        start = System.nanoTime();
+        for (int i = 0; i < iterations; i++) {
+            mapper.readValue(payload, ITEM_LIST);
+        }
+        long deserializeNanos = (System.nanoTime() - start) / iterations;
+
+        return new Measurement(payload.length, serializeNanos, deserializeNanos);
+    }
+
+    private static List<ItemDto> items(int count) {
+        List<ItemDto> items = new ArrayList<>(count);
+        for (long i = 1; i <= count; i++) {
+            items.add(ItemDto.builder()
+                    .id(i)
+                    .name("Дрель " + i)
+                    .description("Ударная дрель с набором свёрл, модель " + i)
+                    .available(i % 3 != 0)
+                    .requestId(i % 5 == 0 ? i / 5 : null)
+                    .latitude(i % 2 == 0 ? 55.75 + i * 1e-4 : null)
+                    .longitude(i % 2 == 0 ? 37.62 + i * 1e-4 : null)
+                    .build());
+        }
+        return items;
+    }
+
+    private record Measurement(int bytes, long serializeNanos, long deserializeNanos) {
+        void print(String format) {
+            System.out.printf("%-6s %12d %16.1f %16.1f%n", format, bytes, serializeNanos / 1e3, deserializeNanos / 1e3);
+        }
+    }
+}
@@ -0,0 +1,142 @@
+package ru.practicum.shareit.ratelimit;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import ru.practicum.shareit.exception.TooManyRequestsException;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class RateLimitInterceptorTest {
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @Test
+    void readsOutsideExpensivePathsAreNotLimited() {
+        RateLimitProperties properties = properties();
+        properties.setUserBurst(1);
+        RateLimitInterceptor interceptor = new RateLimitInterceptor(properties, meterRegistry);
+
+        for (int i = 0; i < 5; i++) {
+            assertTrue(interceptor.preHandle(request("GET", "/items/1", "1"), response(), null));
+        }
+    }
+
+    @Test
+    void rejectsUserOverBurstWithRetryAfter() {
+        RateLimitProperties properties = properties();
+        properties.setUserPermitsPerSecond(1);
+        properties.setUserBurst(1);
+        RateLimitInterceptor interceptor = new RateLimitInterceptor(properties, meterRegistry);
+
+        interceptor.preHandle(request("POST", "/items", "1"), response(), null);
+        TooManyRequestsException e = assertThrows(TooManyRequestsException.class,
+                () -> interceptor.preHandle(request("POST", "/items", "1"), response(), null));
+
+        assertEquals(1, e.getRetryAfterSeconds());
+        assertDoesNotThrow(() -> interceptor.preHandle(request("POST", "/items", "2"), response(), null));
+    }
+
+    @Test
+    void requestsWithoutUserHeaderShareOnlyGlobalBucket() {
+        RateLimitProperties properties = properties();
+        properties.setUserBurst(1);
+        RateLimitInterceptor interceptor = new RateLimitInterceptor(properties, meterRegistry);
+
+        for (int i = 0; i < 5; i++) {
+            assertTrue(interceptor.preHandle(request("POST", "/users", null), response(), null));
+        }
+        assertEquals(0, trackedUsers());
+    }
+
+    @Test
+    void trackedUsersNeverExceedCap() {
+        RateLimitProperties properties = properties();
+        properties.setMaxTrackedUsers(3);
+        properties.setUserBurst(1);
+        RateLimitInterceptor interceptor = new RateLimitInterceptor(properties, meterRegistry);
+
+        for (int user = 0; user < 100; user++) {
+            interceptor.preHandle(request("POST", "/items", String.valueOf(user)), response(), null);
+        }
+
+        assertEquals(3, trackedUsers());
+        assertEquals(97, meterRegistry.counter("shareit.ratelimit.untracked").count());
+    }
+
+    @Test
+    void evictionReachesIdleBucketsBehindBusyOnes() throws Exception {
+        RateLimitProperties properties = properties();
+        properties.setMaxTrackedUsers(64);
+        properties.setUserPermitsPerSecond(100);
+        properties.setUserBurst(1_000);
+        properties.setGlobalBurst(100_000);
+        RateLimitInterceptor interceptor = new RateLimitInterceptor(properties, meterRegistry);
+
+        // Первые 32 пользователя в порядке вытеснения заняты на 2 с вперёд, остальные освободятся через 10 мс
+        for (int user = 0; user < 64; user++) {
+            int requests = user < 32 ? 200 : 1;
+            for (int i = 0; i < requests; i++) {
+                interceptor.preHandle(request("POST", "/items", String.valueOf(user)), response(), null);
+            }
+        }
+        Thread.sleep(50);
+
+        for (int user = 64; user < 74; user++) {
+            interceptor.preHandle(request("POST", "/items", String.valueOf(user)), response(), null);
+        }
+
+        // Первый просмотр упирается в занятых и переносит их в хвост, дальше находятся свободные вёдра
+        assertTrue(meterRegistry.counter("shareit.ratelimit.untracked").count() <= 1);
+        assertEquals(64, trackedUsers());
+    }
+
+    @Test
+    void concurrencyRejectionRefundsTokensAndCompletionReleasesPermit() {
+        RateLimitProperties properties = properties();
+        properties.setUserBurst(2);
+        properties.setGlobalBurst(2);
+        properties.setExpensiveMaxConcurrent(1);
+        RateLimitInterceptor interceptor = new RateLimitInterceptor(properties, meterRegistry);
+
+        MockHttpServletRequest first = request("GET", "/items/search", "1");
+        interceptor.preHandle(first, response(), null);
+        assertThrows(TooManyRequestsException.class,
+                () -> interceptor.preHandle(request("GET", "/items/search", "1"), response(), null));
+
+        interceptor.afterCompletion(first, response(), null, null);
+
+        // Без возврата токенов второй пользовательский токен был бы потрачен на отклонённый запрос
+        assertDoesNotThrow(() -> interceptor.preHandle(request("GET", "/items/search", "1"), response(), null));
+    }
+
+    private RateLimitProperties properties() {
+        RateLimitProperties properties = new RateLimitProperties();
+        properties.setUserPermitsPerSecond(1);
+        properties.setGlobalPermitsPerSecond(1);
+        properties.setGlobalBurst(1_000);
+        properties.setExpensivePaths(List.of("/items/search"));
+        return properties;
+    }
+
+    private double trackedUsers() {
+        return meterRegistry.get("shareit.ratelimit.tracked.users").gauge().value();
+    }
+
+    private MockHttpServletRequest request(String method, String path, String userId) {
+        MockHttpServletRequest request = new MockHttpServletRequest(method, path);
+        if (userId != null) {
+            request.addHeader("X-Sharer-User-Id", userId);
+        }
+        return request;
+    }
+
+    private MockHttpServletResponse response() {
+        return new MockHttpServletResponse();
+    }
+}
@@ -0,0 +1,36 @@
+package ru.practicum.shareit.ratelimit;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@ActiveProfiles("test")
+@AutoConfigureMockMvc
+@SpringBootTest(properties = {
+        "shareit.rate-limit.user-permits-per-second=1",
+        "shareit.rate-limit.user-burst=1"
+})
+class RateLimitMvcTest {
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Test
+    void rejectedRequestIsMappedTo429WithRetryAfter() throws Exception {
+        mockMvc.perform(get("/items/search").param("text", "дрель").header("X-Sharer-User-Id", 42))
+                .andExpect(status().isOk());
+
+        mockMvc.perform(get("/items/search").param("text", "дрель").header("X-Sharer-User-Id", 42))
+                .andExpect(status().isTooManyRequests())
+                .andExpect(header().string(HttpHeaders.RETRY_AFTER, "1"))
+                .andExpect(jsonPath("$.error").exists());
+    }
+}
@@ -0,0 +1,69 @@
+package ru.practicum.shareit.ratelimit;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class TokenBucketTest {
+    private static final long INTERVAL = TimeUnit.MILLISECONDS.toNanos(100);
+
+    @Test
+    void allowsBurstThenReportsExactWait() {
+        TokenBucket bucket = new TokenBucket(10, 3);
+        long now = System.nanoTime();
+
+        assertEquals(0, bucket.tryConsume(now));
+        assertEquals(0, bucket.tryConsume(now));
+        assertEquals(0, bucket.tryConsume(now));
+        assertEquals(INTERVAL, bucket.tryConsume(now));
+    }
+
+    @Test
+    void refillsOneTokenPerInterval() {
+        TokenBucket bucket = new TokenBucket(10, 3);
+        long now = System.nanoTime();
+        for (int i = 0; i < 3; i++) {
+            bucket.tryConsume(now);
+        }
+
+        assertEquals(INTERVAL / 2, bucket.tryConsume(now + INTERVAL / 2));
+        assertEquals(0, bucket.tryConsume(now + INTERVAL));
+        assertEquals(INTERVAL, bucket.tryConsume(now + INTERVAL));
+    }
+
+    @Test
+    void refundReturnsConsumedToken() {
+        TokenBucket bucket = new TokenBucket(10, 3);
+        long now = System.nanoTime();
+        for (int i = 0; i < 3; i++) {
+            bucket.tryConsume(now);
+        }
+
+        bucket.refund();
+
+        assertEquals(0, bucket.tryConsume(now));
+        assertEquals(INTERVAL, bucket.tryConsume(now));
+    }
+
+    @Test
+    void isIdleOnlyAfterFullRefill() {
+        TokenBucket bucket = new TokenBucket(10, 3);
+        long now = System.nanoTime();
+        bucket.tryConsume(now);
+        bucket.tryConsume(now);
+
+        assertFalse(bucket.isIdle(now + INTERVAL));
+        assertTrue(bucket.isIdle(now + 2 * INTERVAL));
+    }
+
+    @Test
+    void rejectsNonPositiveSettings() {
+        assertThrows(IllegalArgumentException.class, () -> new TokenBucket(0, 1));
+        assertThrows(IllegalArgumentException.class, () -> new TokenBucket(1, 0));
+    }
+}
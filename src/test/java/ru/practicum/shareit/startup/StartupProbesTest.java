@@ -0,0 +1,48 @@
+package ru.practicum.shareit.startup;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.web.servlet.MockMvc;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Запускается без профиля: пробы должны работать и в обычном запуске, не только в ci/test.
+ */
+@AutoConfigureMockMvc
+@SpringBootTest(properties = {
+        "spring.profiles.active=",
+        "shareit.warmup.enabled=false"
+})
+class StartupProbesTest {
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Test
+    void probesAreEnabledWithoutProfileAndDoNotCountAsFirstRequest() throws Exception {
+        mockMvc.perform(get("/actuator/health/readiness"))
+                .andExpect(status().isOk());
+        mockMvc.perform(get("/actuator/health/liveness"))
+                .andExpect(status().isOk());
+
+        assertTrue(Double.isNaN(firstRequestSeconds()));
+
+        mockMvc.perform(get("/users"))
+                .andExpect(status().isOk());
+
+        assertFalse(Double.isNaN(firstRequestSeconds()));
+    }
+
+    private double firstRequestSeconds() {
+        return meterRegistry.get("shareit.startup.first.request.seconds").gauge().value();
+    }
+}
@@ -0,0 +1,79 @@
+package ru.practicum.shareit.storage;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import ru.practicum.shareit.exception.TooManyRequestsException;
+import ru.practicum.shareit.item.dto.ItemDto;
+import ru.practicum.shareit.item.service.ItemService;
+import ru.practicum.shareit.user.dto.UserDto;
+import ru.practicum.shareit.user.service.UserService;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+@ActiveProfiles("test")
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:write-behind-backpressure;DB_CLOSE_DELAY=-1",
+        "shareit.storage.write-behind.enabled=true",
+        "shareit.storage.write-behind.flush-interval=1h",
+        "shareit.storage.write-behind.max-pending=2",
+        "shareit.warmup.enabled=false"
+})
+class WriteBehindBackpressureTest {
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private ItemService itemService;
+
+    @Autowired
+    private WriteBehindQueue writeBehindQueue;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void rejectedUpdateLeavesMemoryUnchanged() {
+        writeBehindQueue.stop();
+        UserDto owner = userService.create(UserDto.builder().name("Owner").email("owner@backpressure.test").build());
+        ItemDto item = itemService.create(owner.getId(), ItemDto.builder()
+                .name("Дрель")
+                .description("Ударная")
+                .available(true)
+                .latitude(55.75)
+                .longitude(37.62)
+                .build());
+        assertEquals(2, writeBehindQueue.getPendingCount());
+
+        // База не принимает записи, поэтому сброс внутри ensureCapacity не освобождает место
+        jdbcTemplate.execute("ALTER TABLE items RENAME TO items_offline");
+        jdbcTemplate.execute("ALTER TABLE users RENAME TO users_offline");
+        try {
+            assertThrows(TooManyRequestsException.class, () -> itemService.update(owner.getId(), item.getId(),
+                    ItemDto.builder().name("Перфоратор").latitude(59.94).longitude(30.31).build()));
+            assertThrows(TooManyRequestsException.class, () -> userService.update(owner.getId(),
+                    UserDto.builder().name("Renamed").build()));
+        } finally {
+            jdbcTemplate.execute("ALTER TABLE users_offline RENAME TO users");
+            jdbcTemplate.execute("ALTER TABLE items_offline RENAME TO items");
+        }
+
+        assertEquals("Дрель", itemService.getById(owner.getId(), item.getId()).getName());
+        assertEquals(55.75, itemService.getById(owner.getId(), item.getId()).getLatitude());
+        assertEquals(List.of(item.getId()), ids(itemService.searchNear(null, "55.75,37.62", 1.0)));
+        assertEquals(List.of(), ids(itemService.searchNear(null, "59.94,30.31", 1.0)));
+        assertEquals("Owner", userService.getById(owner.getId()).getName());
+        assertEquals(2, writeBehindQueue.getPendingCount());
+    }
+
+    private List<Long> ids(List<ItemDto> items) {
+        return items.stream()
+                .map(ItemDto::getId)
+                .toList();
+    }
+}
@@ -0,0 +1,184 @@
+package ru.practicum.shareit.storage;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.CannotGetJdbcConnectionException;
+import ru.practicum.shareit.event.EntityType;
+import ru.practicum.shareit.exception.TooManyRequestsException;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.user.model.User;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class WriteBehindQueueTest {
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final FakeStore store = new FakeStore();
+
+    @Test
+    void drainsMoreThanOneBatchWritingOwnersBeforeItems() {
+        WriteBehindQueue queue = queue(2);
+        // Вещи помечаются раньше владельцев: порядок в очереди не должен влиять на порядок записи
+        for (long id = 1; id <= 5; id++) {
+            markItem(queue, id, id);
+        }
+        for (long id = 1; id <= 5; id++) {
+            markUser(queue, id);
+        }
+
+        int written = queue.flush();
+
+        assertEquals(10, written);
+        assertEquals(0, queue.getPendingCount());
+        assertEquals(0, meterRegistry.counter("shareit.writebehind.dead.letters").count());
+        assertEquals(List.of("USER", "USER", "USER", "USER", "USER", "ITEM", "ITEM", "ITEM", "ITEM", "ITEM"),
+                store.writeOrder);
+    }
+
+    @Test
+    void failingWriteDoesNotStopLaterBatches() {
+        WriteBehindQueue queue = queue(2);
+        store.poisonUserId = 1L;
+        for (long id = 1; id <= 5; id++) {
+            markUser(queue, id);
+        }
+
+        int written = queue.flush();
+
+        assertEquals(4, written);
+        assertEquals(1, queue.getPendingCount());
+        assertEquals(Set.of(2L, 3L, 4L, 5L), store.users);
+    }
+
+    @Test
+    void outageStopsDrainWithoutSpendingAttempts() {
+        WriteBehindQueue queue = queue(2);
+        store.offline = true;
+        for (long id = 1; id <= 6; id++) {
+            markUser(queue, id);
+        }
+
+        // Сбоев больше, чем maxAttempts: при недоступной базе попытки не должны расходоваться
+        for (int i = 0; i < 10; i++) {
+            assertEquals(0, queue.flush());
+        }
+
+        // Каждый сброс — одна попытка первой пачки, без записи по одному
+        assertEquals(10, store.attempts);
+        assertEquals(6, queue.getPendingCount());
+        assertEquals(0, meterRegistry.counter("shareit.writebehind.dead.letters").count());
+
+        store.offline = false;
+        assertEquals(6, queue.flush());
+        assertEquals(Set.of(1L, 2L, 3L, 4L, 5L, 6L), store.users);
+    }
+
+    @Test
+    void rejectsImmediatelyWhenQueueIsFullAndFlushIsRunning() throws Exception {
+        WriteBehindProperties properties = new WriteBehindProperties();
+        properties.setMaxPending(2);
+        WriteBehindQueue queue = new WriteBehindQueue(properties, store, meterRegistry);
+        markUser(queue, 1);
+        store.writeStarted = new CountDownLatch(1);
+        store.releaseWrite = new CountDownLatch(1);
+
+        CompletableFuture<Integer> flush = CompletableFuture.supplyAsync(queue::flush);
+        assertTrue(store.writeStarted.await(5, TimeUnit.SECONDS));
+        markUser(queue, 2);
+
+        long start = System.nanoTime();
+        assertThrows(TooManyRequestsException.class, queue::ensureCapacity);
+        assertTrue(System.nanoTime() - start < TimeUnit.SECONDS.toNanos(1), "ensureCapacity ждал сброса");
+
+        store.releaseWrite.countDown();
+        assertEquals(1, flush.get(5, TimeUnit.SECONDS));
+        // Сброс закончился, место освободилось: запрос снова проходит
+        queue.ensureCapacity();
+        assertEquals(1, queue.getPendingCount());
+    }
+
+    private WriteBehindQueue queue(int batchSize) {
+        WriteBehindProperties properties = new WriteBehindProperties();
+        properties.setBatchSize(batchSize);
+        return new WriteBehindQueue(properties, store, meterRegistry);
+    }
+
+    private void markUser(WriteBehindQueue queue, long id) {
+        queue.markDirty(EntityType.USER, id, () -> User.builder()
+                .id(id)
+                .name("user" + id)
+                .email("user" + id + "@example.com")
+                .build());
+    }
+
+    private void markItem(WriteBehindQueue queue, long id, long ownerId) {
+        queue.markDirty(EntityType.ITEM, id, () -> Item.builder()
+                .id(id)
+                .name("item" + id)
+                .description("item" + id)
+                .available(true)
+                .owner(User.builder().id(ownerId).build())
+                .build());
+    }
+
+    /**
+     * Пишет в память, откатывает пачку целиком при ошибке и проверяет внешний ключ items.owner_id.
+     */
+    private static class FakeStore extends WriteBehindStore {
+        private final Set<Long> users = new HashSet<>();
+        private final List<String> writeOrder = new ArrayList<>();
+        private Long poisonUserId;
+        private volatile boolean offline;
+        private int attempts;
+        private CountDownLatch writeStarted;
+        private CountDownLatch releaseWrite;
+
+        FakeStore() {
+            super(null, null);
+        }
+
+        @Override
+        public void write(List<PendingWrite> writes) {
+            attempts++;
+            if (releaseWrite != null) {
+                writeStarted.countDown();
+                try {
+                    releaseWrite.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+            if (offline) {
+                throw new CannotGetJdbcConnectionException("База недоступна");
+            }
+            Set<Long> newUsers = new HashSet<>();
+            for (PendingWrite write : writes) {
+                if (write.key().type() == EntityType.USER) {
+                    if (write.key().id().equals(poisonUserId)) {
+                        throw new IllegalStateException("Ядовитая запись");
+                    }
+                    newUsers.add(write.key().id());
+                }
+            }
+            for (PendingWrite write : writes) {
+                if (write.key().type() == EntityType.ITEM) {
+                    Long ownerId = ((Item) write.snapshot()).getOwner().getId();
+                    if (!users.contains(ownerId) && !newUsers.contains(ownerId)) {
+                        throw new IllegalStateException("Нарушен внешний ключ owner_id = " + ownerId);
+                    }
+                }
+            }
+            users.addAll(newUsers);
+            writes.forEach(write -> writeOrder.add(write.key().type().name()));
+        }
+    }
+}
@@ -0,0 +1,79 @@
+package ru.practicum.shareit.storage;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import ru.practicum.shareit.item.dto.ItemDto;
+import ru.practicum.shareit.item.service.ItemService;
+import ru.practicum.shareit.user.dto.UserDto;
+import ru.practicum.shareit.user.service.UserService;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@ActiveProfiles("test")
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:write-behind;DB_CLOSE_DELAY=-1",
+        "shareit.storage.write-behind.enabled=true",
+        "shareit.storage.write-behind.flush-interval=1h"
+})
+class WriteBehindRecoveryTest {
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private ItemService itemService;
+
+    @Autowired
+    private WriteBehindQueue writeBehindQueue;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void pendingWritesSurviveKilledFlusherAndFailedFlush() throws Exception {
+        // Флашер убит до того, как успел что-то записать
+        writeBehindQueue.stop();
+
+        UserDto owner = userService.create(UserDto.builder().name("Owner").email("owner@write-behind.test").build());
+        ItemDto item = itemService.create(owner.getId(), ItemDto.builder()
+                .name("Дрель")
+                .description("Ударная")
+                .available(true)
+                .build());
+        itemService.update(owner.getId(), item.getId(), ItemDto.builder().description("Аккумуляторная").build());
+
+        assertEquals(0, count("users"));
+        assertEquals(0, count("items"));
+        assertEquals(2, writeBehindQueue.getPendingCount(), "изменения одной вещи должны схлопнуться");
+
+        // Сбой базы посреди сброса: пользователь записывается, вещь остаётся в очереди
+        jdbcTemplate.execute("ALTER TABLE items RENAME TO items_offline");
+        writeBehindQueue.flush();
+        jdbcTemplate.execute("ALTER TABLE items_offline RENAME TO items");
+
+        assertEquals(1, count("users"));
+        assertEquals(1, writeBehindQueue.getPendingCount());
+
+        // Перезапуск флашера сразу дописывает остаток
+        writeBehindQueue.start();
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (writeBehindQueue.getPendingCount() > 0 && System.nanoTime() < deadline) {
+            Thread.sleep(20);
+        }
+
+        assertEquals(0, writeBehindQueue.getPendingCount());
+        assertEquals("Аккумуляторная", jdbcTemplate.queryForObject(
+                "SELECT description FROM items WHERE id = ?", String.class, item.getId()));
+        assertTrue(jdbcTemplate.queryForObject(
+                "SELECT is_available FROM items WHERE id = ?", Boolean.class, item.getId()));
+    }
+
+    private int count(String table) {
+        return jdbcTemplate.queryForObject("SELECT COUNT(*) FROM " + table, Integer.class);
+    }
+}